@@ -17,6 +17,8 @@ def insert_localized_restaurants(latitude, longitude):
     for restaurant in cursor:
         restaurant["latitude"] = latitude
         restaurant["longitude"] = longitude
+        # Keep the GeoJSON copy used by the 2dsphere index in sync.
+        restaurant["location"] = {"type": "Point", "coordinates": [longitude, latitude]}
         restaurant_collection.find_one_and_replace(
             {"_id": restaurant["_id"]}, restaurant
         )
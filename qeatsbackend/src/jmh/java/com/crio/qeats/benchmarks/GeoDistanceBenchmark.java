@@ -0,0 +1,79 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.benchmarks;
+
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.GeoUtils;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares calling GeoUtils.findDistanceInKm per boxed coordinate pair with the batch kernel
+ * over primitive arrays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeoDistanceBenchmark {
+
+  private static final double LATITUDE = RestaurantDataset.LATITUDE;
+  private static final double LONGITUDE = RestaurantDataset.LONGITUDE;
+
+  @Param({"1000", "100000"})
+  private int restaurantCount;
+
+  @Param({"3.0", "5.0"})
+  private double servingRadiusInKms;
+
+  private Double[] boxedLatitudes;
+  private Double[] boxedLongitudes;
+  private double[] latitudes;
+  private double[] longitudes;
+  private int[] matches;
+
+  @Setup
+  public void setup() {
+    List<RestaurantEntity> restaurants = RestaurantDataset.restaurantEntities(restaurantCount);
+    boxedLatitudes = new Double[restaurantCount];
+    boxedLongitudes = new Double[restaurantCount];
+    latitudes = new double[restaurantCount];
+    longitudes = new double[restaurantCount];
+    matches = new int[restaurantCount];
+    for (int i = 0; i < restaurantCount; i++) {
+      boxedLatitudes[i] = restaurants.get(i).getLatitude();
+      boxedLongitudes[i] = restaurants.get(i).getLongitude();
+      latitudes[i] = boxedLatitudes[i];
+      longitudes[i] = boxedLongitudes[i];
+    }
+  }
+
+  @Benchmark
+  public int haversinePerPoint() {
+    int matched = 0;
+    for (int i = 0; i < restaurantCount; i++) {
+      if (GeoUtils.findDistanceInKm(LATITUDE, LONGITUDE, boxedLatitudes[i], boxedLongitudes[i])
+          < servingRadiusInKms) {
+        matches[matched++] = i;
+      }
+    }
+    return matched;
+  }
+
+  @Benchmark
+  public int batchKernel() {
+    return GeoUtils.findWithinRadius(LATITUDE, LONGITUDE, latitudes, longitudes, restaurantCount,
+        servingRadiusInKms, matches);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.benchmarks;
+
+import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures Jackson serialization of the restaurant listing response body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GetRestaurantsResponseSerializationBenchmark {
+
+  @Param({"20", "500", "5000"})
+  private int restaurantCount;
+
+  private ObjectMapper objectMapper;
+  private GetRestaurantsResponse response;
+
+  @Setup
+  public void setup() {
+    objectMapper = new ObjectMapper();
+    response = new GetRestaurantsResponse(RestaurantDataset.restaurants(restaurantCount));
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(response);
+  }
+}
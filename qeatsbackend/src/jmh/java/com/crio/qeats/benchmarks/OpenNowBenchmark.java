@@ -0,0 +1,69 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.benchmarks;
+
+import com.crio.qeats.models.RestaurantEntity;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the open-now check run for every candidate restaurant of a listing.
+ * {@link #parseEveryCall()} keeps the original LocalTime.parse based check as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OpenNowBenchmark {
+
+  @Param({"10000"})
+  private int restaurantCount;
+
+  @Param({"09:05", "13:30", "22:20"})
+  private String currentTime;
+
+  private List<RestaurantEntity> restaurants;
+  private LocalTime now;
+
+  @Setup
+  public void setup() {
+    restaurants = RestaurantDataset.restaurantEntities(restaurantCount);
+    now = LocalTime.parse(currentTime);
+  }
+
+  @Benchmark
+  public int openingHours() {
+    int open = 0;
+    for (RestaurantEntity restaurantEntity : restaurants) {
+      if (restaurantEntity.isOpen(now)) {
+        open++;
+      }
+    }
+    return open;
+  }
+
+  @Benchmark
+  public int parseEveryCall() {
+    int open = 0;
+    for (RestaurantEntity restaurantEntity : restaurants) {
+      LocalTime opens = LocalTime.parse(restaurantEntity.getOpensAt());
+      LocalTime closes = LocalTime.parse(restaurantEntity.getClosesAt());
+      if (now.isAfter(opens) && now.isBefore(closes)) {
+        open++;
+      }
+    }
+    return open;
+  }
+}
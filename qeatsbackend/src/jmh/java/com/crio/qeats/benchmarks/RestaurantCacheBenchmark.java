@@ -0,0 +1,115 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.benchmarks;
+
+import ch.hsr.geohash.GeoHash;
+import ch.hsr.geohash.WGS84Point;
+import com.crio.qeats.cache.InMemoryRestaurantCache;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.utils.GeoGridIndex;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Replays listing requests against the in-process {@link InMemoryRestaurantCache}, to compare
+ * cache sizes and time to live without Redis or MongoDB.
+ *
+ * <p>{@link #HOT_SHARE} of the requests come from a hot area of 0.1 x 0.1 degrees, the others
+ * from anywhere in the dataset box. A miss looks the cell candidates up in a grid index and
+ * caches them, like the service does. Scores are microseconds per request. The hits, misses and
+ * hit ratio of each iteration are reported as secondary results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RestaurantCacheBenchmark {
+
+  private static final int CELL_PRECISION = 7;
+  private static final double SERVING_RADIUS_IN_KMS = 3.0;
+  private static final double HOT_SHARE = 0.8;
+  private static final int REQUESTS = 1 << 16;
+
+  @Param({"10000"})
+  private int restaurantCount;
+
+  @Param({"1000", "10000", "100000"})
+  private int maxEntries;
+
+  @Param({"3600"})
+  private long ttlInSeconds;
+
+  private GeoGridIndex<Restaurant> geoIndex;
+  private InMemoryRestaurantCache restaurantCache;
+  private GeoHash[] requestCells;
+  private int next;
+
+  /**
+   * Lookups of an iteration, reported next to the score.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Lookups {
+
+    public long hits;
+    public long misses;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      hits = 0;
+      misses = 0;
+    }
+
+    public double hitRatio() {
+      return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+  }
+
+  @Setup
+  public void setup() {
+    List<Restaurant> restaurants = RestaurantDataset.restaurants(restaurantCount);
+    geoIndex = GeoGridIndex.build(restaurants, Restaurant::getLatitude, Restaurant::getLongitude);
+    restaurantCache = new InMemoryRestaurantCache(maxEntries, ttlInSeconds, TimeUnit.SECONDS);
+    Random random = new Random(REQUESTS);
+    requestCells = new GeoHash[REQUESTS];
+    for (int i = 0; i < REQUESTS; i++) {
+      double spread = random.nextDouble() < HOT_SHARE ? 0.1 : 1.0;
+      requestCells[i] = GeoHash.withCharacterPrecision(
+          RestaurantDataset.LATITUDE + (random.nextDouble() - 0.5) * spread,
+          RestaurantDataset.LONGITUDE + (random.nextDouble() - 0.5) * spread, CELL_PRECISION);
+    }
+  }
+
+  @Benchmark
+  public List<Restaurant> request(Lookups lookups) {
+    GeoHash cell = requestCells[next];
+    next = (next + 1) % REQUESTS;
+    String key = cell.toBase32() + ':' + SERVING_RADIUS_IN_KMS;
+    List<Restaurant> candidates = restaurantCache.get(key);
+    if (candidates != null) {
+      lookups.hits++;
+      return candidates;
+    }
+    lookups.misses++;
+    WGS84Point center = cell.getBoundingBoxCenterPoint();
+    // Generous bound on the half diagonal of a precision 7 cell.
+    candidates = geoIndex.findCandidates(center.getLatitude(), center.getLongitude(),
+        SERVING_RADIUS_IN_KMS + 0.1);
+    restaurantCache.put(key, candidates);
+    return candidates;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.benchmarks;
+
+import com.crio.qeats.cache.BinaryRestaurantCodec;
+import com.crio.qeats.cache.JsonRestaurantCodec;
+import com.crio.qeats.cache.RestaurantCacheSerializer;
+import com.crio.qeats.dto.Restaurant;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Compares the encodings of the restaurants cached in Redis, one value per restaurant, over
+ * {@link #RESTAURANTS} restaurants of the dataset.
+ *
+ * <p>Scores are nanoseconds per restaurant. The average size of a value in each encoding is
+ * reported as the bytesPerRestaurant secondary result. {@code decodeJsonString} is the read path
+ * used before the codecs, a JSON string parsed into a restaurant, it does not depend on the
+ * parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RestaurantCacheCodecBenchmark {
+
+  private static final int RESTAURANTS = 200;
+
+  @Param({"json", "binary"})
+  private String codec;
+
+  private ObjectMapper objectMapper;
+  private RestaurantCacheSerializer serializer;
+  private List<Restaurant> restaurants;
+  private byte[][] values;
+  private String[] jsonStrings;
+  private long bytesPerValue;
+  private long bytesPerJsonString;
+
+  /**
+   * Average size of the values encoded or decoded, reported next to the score.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ValueSize {
+
+    public long bytesPerRestaurant;
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    objectMapper = new ObjectMapper();
+    JsonRestaurantCodec jsonCodec = new JsonRestaurantCodec();
+    setField(jsonCodec, "objectMapper", objectMapper);
+    serializer = new RestaurantCacheSerializer();
+    setField(serializer, "codecName", codec);
+    setField(serializer, "codecs", Arrays.asList(jsonCodec, new BinaryRestaurantCodec()));
+    Method init = ReflectionUtils.findMethod(RestaurantCacheSerializer.class, "init");
+    ReflectionUtils.makeAccessible(init);
+    ReflectionUtils.invokeMethod(init, serializer);
+
+    restaurants = RestaurantDataset.restaurants(RESTAURANTS);
+    values = new byte[RESTAURANTS][];
+    jsonStrings = new String[RESTAURANTS];
+    for (int i = 0; i < RESTAURANTS; i++) {
+      values[i] = serializer.serialize(restaurants.get(i));
+      jsonStrings[i] = objectMapper.writeValueAsString(restaurants.get(i));
+      bytesPerValue += values[i].length;
+      bytesPerJsonString += jsonStrings[i].length();
+    }
+    bytesPerValue /= RESTAURANTS;
+    bytesPerJsonString /= RESTAURANTS;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RESTAURANTS)
+  public void decode(ValueSize valueSize, Blackhole blackhole) throws IOException {
+    valueSize.bytesPerRestaurant = bytesPerValue;
+    for (byte[] value : values) {
+      blackhole.consume(serializer.deserialize(value));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RESTAURANTS)
+  public void encode(ValueSize valueSize, Blackhole blackhole) throws IOException {
+    valueSize.bytesPerRestaurant = bytesPerValue;
+    for (Restaurant restaurant : restaurants) {
+      blackhole.consume(serializer.serialize(restaurant));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RESTAURANTS)
+  public void decodeJsonString(ValueSize valueSize, Blackhole blackhole) throws IOException {
+    valueSize.bytesPerRestaurant = bytesPerJsonString;
+    for (String jsonString : jsonStrings) {
+      blackhole.consume(objectMapper.readValue(jsonString, Restaurant.class));
+    }
+  }
+
+  private static void setField(Object target, String name, Object value) {
+    Field field = ReflectionUtils.findField(target.getClass(), name);
+    ReflectionUtils.makeAccessible(field);
+    ReflectionUtils.setField(field, target, value);
+  }
+}
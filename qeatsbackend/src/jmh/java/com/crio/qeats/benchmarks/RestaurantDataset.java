@@ -0,0 +1,86 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.benchmarks;
+
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.FixtureHelpers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds benchmark inputs of any size from the restaurant fixture shipped with the app.
+ *
+ * <p>Every generated restaurant copies the name, city, image and attributes of a fixture
+ * restaurant, and gets a unique id, a location spread over a 1 x 1 degree box around
+ * ({@link #LATITUDE}, {@link #LONGITUDE}) and opening hours drawn from the same choices as the
+ * data loading script. Generation is seeded so runs are comparable.
+ *
+ * <p>Benchmarks expose the size as the {@code restaurantCount} parameter, override it with
+ * {@code -p restaurantCount=100000} when running the jmh jar.
+ */
+public final class RestaurantDataset {
+
+  public static final double LATITUDE = 12.9;
+  public static final double LONGITUDE = 77.6;
+
+  private static final String FIXTURE = "fixtures/exchanges/normal_hours_list_of_restaurants.json";
+  private static final String[] OPENING_TIMES = {"08:30", "09:00", "09:30", "10:00", "11:00"};
+  private static final String[] CLOSING_TIMES = {"22:00", "22:15", "22:30", "23:00", "23:30"};
+
+  private RestaurantDataset() {
+  }
+
+  public static List<RestaurantEntity> restaurantEntities(int count) {
+    List<Restaurant> templates = loadFixture();
+    Random random = new Random(count);
+    List<RestaurantEntity> restaurantEntities = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Restaurant template = templates.get(i % templates.size());
+      RestaurantEntity restaurantEntity = new RestaurantEntity();
+      restaurantEntity.setId(String.valueOf(i));
+      restaurantEntity.setRestaurantId(String.valueOf(i));
+      restaurantEntity.setName(template.getName());
+      restaurantEntity.setCity(template.getCity());
+      restaurantEntity.setImageUrl(template.getImageUrl());
+      restaurantEntity.setLatitude(LATITUDE + random.nextDouble() - 0.5);
+      restaurantEntity.setLongitude(LONGITUDE + random.nextDouble() - 0.5);
+      restaurantEntity.setOpensAt(OPENING_TIMES[random.nextInt(OPENING_TIMES.length)]);
+      restaurantEntity.setClosesAt(CLOSING_TIMES[random.nextInt(CLOSING_TIMES.length)]);
+      restaurantEntity.setAttributes(new ArrayList<>(template.getAttributes()));
+      restaurantEntities.add(restaurantEntity);
+    }
+    return restaurantEntities;
+  }
+
+  public static List<Restaurant> restaurants(int count) {
+    List<Restaurant> restaurants = new ArrayList<>(count);
+    for (RestaurantEntity restaurantEntity : restaurantEntities(count)) {
+      restaurants.add(new Restaurant(restaurantEntity.getRestaurantId(),
+          restaurantEntity.getName(), restaurantEntity.getCity(), restaurantEntity.getImageUrl(),
+          restaurantEntity.getLatitude(), restaurantEntity.getLongitude(),
+          restaurantEntity.getOpensAt(), restaurantEntity.getClosesAt(),
+          restaurantEntity.getAttributes(), null));
+    }
+    return restaurants;
+  }
+
+  private static List<Restaurant> loadFixture() {
+    try {
+      return new ObjectMapper().readValue(FixtureHelpers.fixture(FIXTURE),
+          new TypeReference<List<Restaurant>>() {
+          });
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
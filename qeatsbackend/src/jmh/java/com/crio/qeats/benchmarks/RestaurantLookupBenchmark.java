@@ -0,0 +1,69 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.benchmarks;
+
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.GeoGridIndex;
+import com.crio.qeats.utils.GeoUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the full collection scan against the grid index for a single nearby lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RestaurantLookupBenchmark {
+
+  private static final double LATITUDE = RestaurantDataset.LATITUDE;
+  private static final double LONGITUDE = RestaurantDataset.LONGITUDE;
+  private static final double SERVING_RADIUS_IN_KMS = 5.0;
+
+  @Param({"10000", "100000", "1000000"})
+  private int restaurantCount;
+
+  private List<RestaurantEntity> restaurants;
+  private GeoGridIndex<RestaurantEntity> geoIndex;
+
+  @Setup
+  public void setup() {
+    restaurants = RestaurantDataset.restaurantEntities(restaurantCount);
+    geoIndex = GeoGridIndex.build(restaurants, RestaurantEntity::getLatitude,
+        RestaurantEntity::getLongitude);
+  }
+
+  @Benchmark
+  public List<RestaurantEntity> scan() {
+    return filterCloseBy(restaurants);
+  }
+
+  @Benchmark
+  public List<RestaurantEntity> grid() {
+    return filterCloseBy(geoIndex.findCandidates(LATITUDE, LONGITUDE, SERVING_RADIUS_IN_KMS));
+  }
+
+  private List<RestaurantEntity> filterCloseBy(List<RestaurantEntity> candidates) {
+    List<RestaurantEntity> closeBy = new ArrayList<>();
+    for (RestaurantEntity restaurantEntity : candidates) {
+      if (GeoUtils.findDistanceInKm(LATITUDE, LONGITUDE, restaurantEntity.getLatitude(),
+          restaurantEntity.getLongitude()) < SERVING_RADIUS_IN_KMS) {
+        closeBy.add(restaurantEntity);
+      }
+    }
+    return closeBy;
+  }
+}
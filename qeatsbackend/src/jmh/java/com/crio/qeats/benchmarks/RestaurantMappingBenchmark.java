@@ -0,0 +1,73 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.benchmarks;
+
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.mappers.RestaurantMapper;
+import com.crio.qeats.models.RestaurantEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures RestaurantEntity to Restaurant mapping. {@link #modelMapperPerRestaurant()} is how the
+ * repository services used to map, fetching a new prototype ModelMapper for every restaurant.
+ * {@link #restaurantMapper()} is the hand-written mapper they use now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RestaurantMappingBenchmark {
+
+  @Param({"100", "1000"})
+  private int restaurantCount;
+
+  private List<RestaurantEntity> restaurants;
+  private ModelMapper sharedModelMapper;
+
+  @Setup
+  public void setup() {
+    restaurants = RestaurantDataset.restaurantEntities(restaurantCount);
+    sharedModelMapper = new ModelMapper();
+  }
+
+  @Benchmark
+  public List<Restaurant> modelMapperPerRestaurant() {
+    List<Restaurant> mapped = new ArrayList<>(restaurants.size());
+    for (RestaurantEntity restaurantEntity : restaurants) {
+      mapped.add(new ModelMapper().map(restaurantEntity, Restaurant.class));
+    }
+    return mapped;
+  }
+
+  @Benchmark
+  public List<Restaurant> sharedModelMapper() {
+    List<Restaurant> mapped = new ArrayList<>(restaurants.size());
+    for (RestaurantEntity restaurantEntity : restaurants) {
+      mapped.add(sharedModelMapper.map(restaurantEntity, Restaurant.class));
+    }
+    return mapped;
+  }
+
+  @Benchmark
+  public List<Restaurant> restaurantMapper() {
+    List<Restaurant> mapped = new ArrayList<>(restaurants.size());
+    for (RestaurantEntity restaurantEntity : restaurants) {
+      mapped.add(RestaurantMapper.toRestaurant(restaurantEntity));
+    }
+    return mapped;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.benchmarks;
+
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.InvertedIndex;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the case-insensitive regex search by name, as Mongo runs it over every document
+ * without the cost of the round trip, against the in-memory inverted index.
+ *
+ * <p>Restaurants are named after the fixture restaurants followed by a branch number, so
+ * "a2b 4242" matches a few branches and "a2b 4" about a tenth of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RestaurantSearchBenchmark {
+
+  @Param({"10000", "100000"})
+  private int restaurantCount;
+
+  @Param({"a2b 4242", "a2b 4"})
+  private String searchString;
+
+  private List<RestaurantEntity> restaurants;
+  private InvertedIndex names;
+
+  @Setup
+  public void setup() {
+    restaurants = RestaurantDataset.restaurantEntities(restaurantCount);
+    InvertedIndex.Builder builder = InvertedIndex.builder();
+    for (int i = 0; i < restaurants.size(); i++) {
+      RestaurantEntity restaurantEntity = restaurants.get(i);
+      restaurantEntity.setName(restaurantEntity.getName() + " " + i);
+      builder.add(i, restaurantEntity.getName());
+    }
+    names = builder.build();
+  }
+
+  @Benchmark
+  public List<RestaurantEntity> regex() {
+    Pattern exact = Pattern.compile(String.format("^%s$", searchString),
+        Pattern.CASE_INSENSITIVE);
+    Pattern partial = Pattern.compile(String.format(".*%s.*", searchString),
+        Pattern.CASE_INSENSITIVE);
+    Set<RestaurantEntity> found = new LinkedHashSet<>();
+    for (RestaurantEntity restaurantEntity : restaurants) {
+      if (exact.matcher(restaurantEntity.getName()).find()) {
+        found.add(restaurantEntity);
+      }
+    }
+    for (RestaurantEntity restaurantEntity : restaurants) {
+      if (partial.matcher(restaurantEntity.getName()).find()) {
+        found.add(restaurantEntity);
+      }
+    }
+    return new ArrayList<>(found);
+  }
+
+  @Benchmark
+  public List<RestaurantEntity> index() {
+    Set<RestaurantEntity> found = new LinkedHashSet<>();
+    for (int number : names.findExact(searchString)) {
+      found.add(restaurants.get(number));
+    }
+    for (int number : names.findContaining(searchString)) {
+      found.add(restaurants.get(number));
+    }
+    return new ArrayList<>(found);
+  }
+}
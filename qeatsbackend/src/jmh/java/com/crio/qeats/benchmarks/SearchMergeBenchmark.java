@@ -0,0 +1,149 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.benchmarks;
+
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.GetRestaurantsRequest;
+import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.repositoryservices.RestaurantRepositoryService;
+import com.crio.qeats.services.RestaurantServiceImpl;
+import java.lang.reflect.Field;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Measures how RestaurantServiceImpl combines the four search categories, with every category
+ * answered from memory. With no category latency only the fan-out and the merge are timed, with
+ * some, a search should take about one category latency as they run in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchMergeBenchmark {
+
+  @Param({"50", "500"})
+  private int restaurantsPerCategory;
+
+  @Param({"0", "5"})
+  private long categoryLatencyMillis;
+
+  private ExecutorService searchExecutor;
+  private RestaurantServiceImpl restaurantService;
+  private GetRestaurantsRequest request;
+  private LocalTime currentTime;
+
+  @Setup
+  public void setup() {
+    List<Restaurant> restaurants = RestaurantDataset.restaurants(restaurantsPerCategory * 4);
+    List<Restaurant> byName = restaurants.subList(0, restaurantsPerCategory);
+    List<Restaurant> byAttributes =
+        restaurants.subList(restaurantsPerCategory, 2 * restaurantsPerCategory);
+    List<Restaurant> byItemName =
+        restaurants.subList(2 * restaurantsPerCategory, 3 * restaurantsPerCategory);
+    List<Restaurant> byItemAttributes =
+        restaurants.subList(3 * restaurantsPerCategory, 4 * restaurantsPerCategory);
+
+    restaurantService = new RestaurantServiceImpl();
+    setField("restaurantRepositoryService", new InMemoryRestaurantRepositoryService(byName,
+        byAttributes, byItemName, byItemAttributes, categoryLatencyMillis));
+    searchExecutor = Executors.newFixedThreadPool(4);
+    setField("searchExecutor", searchExecutor);
+    setField("searchTimeoutInMillis", 1000L);
+
+    request = new GetRestaurantsRequest(RestaurantDataset.LATITUDE, RestaurantDataset.LONGITUDE,
+        "biryani");
+    currentTime = LocalTime.of(15, 0);
+  }
+
+  @TearDown
+  public void tearDown() {
+    searchExecutor.shutdownNow();
+  }
+
+  private void setField(String name, Object value) {
+    Field field = ReflectionUtils.findField(RestaurantServiceImpl.class, name);
+    ReflectionUtils.makeAccessible(field);
+    ReflectionUtils.setField(field, restaurantService, value);
+  }
+
+  @Benchmark
+  public GetRestaurantsResponse findRestaurantsBySearchQuery() {
+    return restaurantService.findRestaurantsBySearchQuery(request, currentTime);
+  }
+
+  private static class InMemoryRestaurantRepositoryService implements RestaurantRepositoryService {
+
+    private final List<Restaurant> byName;
+    private final List<Restaurant> byAttributes;
+    private final List<Restaurant> byItemName;
+    private final List<Restaurant> byItemAttributes;
+    private final long latencyMillis;
+
+    InMemoryRestaurantRepositoryService(List<Restaurant> byName, List<Restaurant> byAttributes,
+        List<Restaurant> byItemName, List<Restaurant> byItemAttributes, long latencyMillis) {
+      this.byName = byName;
+      this.byAttributes = byAttributes;
+      this.byItemName = byItemName;
+      this.byItemAttributes = byItemAttributes;
+      this.latencyMillis = latencyMillis;
+    }
+
+    private List<Restaurant> afterLatency(List<Restaurant> restaurants) {
+      if (latencyMillis > 0) {
+        try {
+          Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return restaurants;
+    }
+
+    @Override
+    public List<Restaurant> findAllRestaurantsCloseBy(Double latitude, Double longitude,
+        LocalTime currentTime, Double servingRadiusInKms) {
+      return byName;
+    }
+
+    @Override
+    public List<Restaurant> findRestaurantsByName(Double latitude, Double longitude,
+        String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+      return afterLatency(byName);
+    }
+
+    @Override
+    public List<Restaurant> findRestaurantsByAttributes(Double latitude, Double longitude,
+        String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+      return afterLatency(byAttributes);
+    }
+
+    @Override
+    public List<Restaurant> findRestaurantsByItemName(Double latitude, Double longitude,
+        String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+      return afterLatency(byItemName);
+    }
+
+    @Override
+    public List<Restaurant> findRestaurantsByItemAttributes(Double latitude, Double longitude,
+        String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+      return afterLatency(byItemAttributes);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Restaurant;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compact binary encoding of a restaurant.
+ *
+ * <p>The fields of the restaurant in declaration order, strings as a presence byte followed by
+ * their modified UTF-8, coordinates as 8 byte doubles, attributes as their count followed by
+ * each of them. Distances are not stored, they depend on the request.
+ */
+@Component
+public class BinaryRestaurantCodec implements RestaurantCodec {
+
+  public static final String NAME = "binary";
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  // Version 2 was a list of restaurants sharing a string table.
+  @Override
+  public byte version() {
+    return 4;
+  }
+
+  @Override
+  public byte[] encode(Restaurant restaurant) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+    DataOutputStream out = new DataOutputStream(bytes);
+    writeString(out, restaurant.getRestaurantId());
+    writeString(out, restaurant.getName());
+    writeString(out, restaurant.getCity());
+    writeString(out, restaurant.getImageUrl());
+    out.writeDouble(restaurant.getLatitude());
+    out.writeDouble(restaurant.getLongitude());
+    writeString(out, restaurant.getOpensAt());
+    writeString(out, restaurant.getClosesAt());
+    List<String> attributes = restaurant.getAttributes();
+    int attributeCount = attributes == null ? 0 : attributes.size();
+    writeVarInt(out, attributeCount);
+    for (int i = 0; i < attributeCount; i++) {
+      writeString(out, attributes.get(i));
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public Restaurant decode(byte[] bytes, int offset, int length) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, length));
+    Restaurant restaurant = new Restaurant();
+    restaurant.setRestaurantId(readString(in));
+    restaurant.setName(readString(in));
+    restaurant.setCity(readString(in));
+    restaurant.setImageUrl(readString(in));
+    restaurant.setLatitude(in.readDouble());
+    restaurant.setLongitude(in.readDouble());
+    restaurant.setOpensAt(readString(in));
+    restaurant.setClosesAt(readString(in));
+    int attributeCount = readVarInt(in);
+    if (attributeCount < 0 || attributeCount > length) {
+      throw new IOException("Malformed cache value, " + attributeCount + " attributes");
+    }
+    List<String> attributes = new ArrayList<>(attributeCount);
+    for (int i = 0; i < attributeCount; i++) {
+      attributes.add(readString(in));
+    }
+    restaurant.setAttributes(attributes);
+    if (in.available() > 0) {
+      throw new IOException("Malformed cache value, " + in.available() + " trailing bytes");
+    }
+    return restaurant;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  // Unsigned LEB128, 7 bits per byte, small values take one byte.
+  private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed cache value, varint too long");
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Tells the other nodes that a cache key changed, so they drop their in-process copy.
+ *
+ * <p>Follows qeats.cache.backend: {@code redis} ({@link RedisCacheInvalidationBus}) sends the
+ * keys over Redis pub/sub, {@code memory} ({@link LocalCacheInvalidationBus}) has no other node
+ * to tell. Publishing {@link #ALL_KEYS} invalidates every key.
+ */
+public interface CacheInvalidationBus {
+
+  String ALL_KEYS = "*";
+
+  /**
+   * Register a callback run with every key invalidated by another node.
+   */
+  void addListener(Consumer<String> listener);
+
+  /**
+   * Ask the other nodes to drop the key. Best effort: a lost message only means the other nodes
+   * keep their copy until it expires.
+   */
+  void publish(String key);
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hit and miss counters of the restaurant cache, per tier.
+ *
+ * <p>Published as {@code qeats.cache.gets} tagged with {@code tier} (l1 for the in-process near
+ * cache, l2 for Redis) and {@code result} (hit or miss), plus a {@code qeats.cache.hit.ratio}
+ * gauge per tier. An l2 lookup only happens after an l1 miss. Lookups answered empty from the
+ * empty region bitmap, before any tier, are counted as {@code qeats.cache.empty.region.hits}.
+ */
+@Component
+public class CacheMetrics {
+
+  public static final String L1 = "l1";
+  public static final String L2 = "l2";
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private Counter l1Hits;
+  private Counter l1Misses;
+  private Counter l2Hits;
+  private Counter l2Misses;
+  private Counter emptyRegionHits;
+
+  @PostConstruct
+  private void registerMeters() {
+    l1Hits = gets(meterRegistry, L1, "hit");
+    l1Misses = gets(meterRegistry, L1, "miss");
+    l2Hits = gets(meterRegistry, L2, "hit");
+    l2Misses = gets(meterRegistry, L2, "miss");
+    emptyRegionHits = Counter.builder("qeats.cache.empty.region.hits").register(meterRegistry);
+    Gauge.builder("qeats.cache.hit.ratio", this, metrics -> metrics.hitRatio(L1))
+        .tag("tier", L1).register(meterRegistry);
+    Gauge.builder("qeats.cache.hit.ratio", this, metrics -> metrics.hitRatio(L2))
+        .tag("tier", L2).register(meterRegistry);
+  }
+
+  private static Counter gets(MeterRegistry meterRegistry, String tier, String result) {
+    return Counter.builder("qeats.cache.gets")
+        .tag("tier", tier)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  public void recordHit(String tier) {
+    (L1.equals(tier) ? l1Hits : l2Hits).increment();
+  }
+
+  public void recordMiss(String tier) {
+    (L1.equals(tier) ? l1Misses : l2Misses).increment();
+  }
+
+  public void recordEmptyRegionHit() {
+    emptyRegionHits.increment();
+  }
+
+  /**
+   * Share of lookups answered by the tier since startup, 0 before the first lookup so that
+   * dashboards and alerts always get a number.
+   */
+  public double hitRatio(String tier) {
+    double hits = (L1.equals(tier) ? l1Hits : l2Hits).count();
+    double misses = (L1.equals(tier) ? l1Misses : l2Misses).count();
+    return hits + misses == 0 ? 0 : hits / (hits + misses);
+  }
+}
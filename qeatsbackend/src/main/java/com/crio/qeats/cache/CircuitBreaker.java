@@ -0,0 +1,186 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Stops calling a dependency that keeps failing or answering slowly, so that callers fall back
+ * at once instead of each waiting for a timeout.
+ *
+ * <p>While {@link State#CLOSED} the outcome of the last {@code windowSize} calls is kept. Once at
+ * least {@code minimumCalls} are known and the share of failed calls, or of calls slower than
+ * {@code slowCallNanos}, reaches its threshold, the breaker opens. While {@link State#OPEN} every
+ * call is refused. After {@code openNanos} the breaker goes {@link State#HALF_OPEN} and lets
+ * {@code halfOpenProbes} calls through: it closes if they all succeed in time and opens again
+ * on the first one that does not.
+ *
+ * <p>Callers ask {@link #tryAcquire} before each call and then either run it with
+ * {@link #call}, or report its outcome with {@link #onSuccess} or {@link #onFailure}.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final int windowSize;
+  private final int minimumCalls;
+  private final int failureRatePercent;
+  private final long slowCallNanos;
+  private final int slowCallRatePercent;
+  private final long openNanos;
+  private final int halfOpenProbes;
+  private final LongSupplier clock;
+  private final BiConsumer<State, State> onTransition;
+
+  // Outcomes of the last calls while closed, a ring of windowSize entries.
+  private final boolean[] failed;
+  private final boolean[] slow;
+  private int calls;
+  private int next;
+  private int failures;
+  private int slowCalls;
+
+  private State state = State.CLOSED;
+  private long openedAt;
+  private int probesStarted;
+  private int probesSucceeded;
+
+  /**
+   * Create a closed breaker.
+   * @param clock nanosecond time source, {@code System::nanoTime} outside of tests
+   * @param onTransition called with the previous and the new state on every state change, while
+   *     the breaker is locked
+   */
+  public CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent,
+      long slowCallNanos, int slowCallRatePercent, long openNanos, int halfOpenProbes,
+      LongSupplier clock, BiConsumer<State, State> onTransition) {
+    if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || halfOpenProbes < 1) {
+      throw new IllegalArgumentException("Invalid circuit breaker window");
+    }
+    this.windowSize = windowSize;
+    this.minimumCalls = minimumCalls;
+    this.failureRatePercent = failureRatePercent;
+    this.slowCallNanos = slowCallNanos;
+    this.slowCallRatePercent = slowCallRatePercent;
+    this.openNanos = openNanos;
+    this.halfOpenProbes = halfOpenProbes;
+    this.clock = clock;
+    this.onTransition = onTransition;
+    this.failed = new boolean[windowSize];
+    this.slow = new boolean[windowSize];
+  }
+
+  /**
+   * Current state, moving from open to half-open if the open period is over.
+   */
+  public synchronized State getState() {
+    if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+      transitionTo(State.HALF_OPEN);
+    }
+    return state;
+  }
+
+  /**
+   * Whether the next call may go through. Every acquired call must be followed by
+   * {@link #onSuccess} or {@link #onFailure}.
+   */
+  public synchronized boolean tryAcquire() {
+    switch (getState()) {
+      case CLOSED:
+        return true;
+      case HALF_OPEN:
+        if (probesStarted < halfOpenProbes) {
+          probesStarted++;
+          return true;
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Run a call acquired with {@link #tryAcquire} and report its outcome: a success timed with
+   * the clock, or a failure if it throws, whatever the exception. The exception is rethrown.
+   */
+  public <T> T call(Supplier<T> call) {
+    long start = clock.getAsLong();
+    T result;
+    try {
+      result = call.get();
+    } catch (RuntimeException | Error e) {
+      onFailure();
+      throw e;
+    }
+    onSuccess(clock.getAsLong() - start);
+    return result;
+  }
+
+  /**
+   * Report a call that completed, slow if it took longer than the slow call threshold.
+   */
+  public synchronized void onSuccess(long durationNanos) {
+    boolean slowCall = durationNanos > slowCallNanos;
+    if (state == State.HALF_OPEN) {
+      if (slowCall) {
+        transitionTo(State.OPEN);
+      } else if (++probesSucceeded >= halfOpenProbes) {
+        transitionTo(State.CLOSED);
+      }
+    } else if (state == State.CLOSED) {
+      record(false, slowCall);
+    }
+  }
+
+  public synchronized void onFailure() {
+    if (state == State.HALF_OPEN) {
+      transitionTo(State.OPEN);
+    } else if (state == State.CLOSED) {
+      record(true, false);
+    }
+  }
+
+  private void record(boolean failedCall, boolean slowCall) {
+    if (calls == windowSize) {
+      failures -= failed[next] ? 1 : 0;
+      slowCalls -= slow[next] ? 1 : 0;
+    } else {
+      calls++;
+    }
+    failed[next] = failedCall;
+    slow[next] = slowCall;
+    failures += failedCall ? 1 : 0;
+    slowCalls += slowCall ? 1 : 0;
+    next = (next + 1) % windowSize;
+
+    if (calls >= minimumCalls && (failures * 100 >= failureRatePercent * calls
+        || slowCalls * 100 >= slowCallRatePercent * calls)) {
+      transitionTo(State.OPEN);
+    }
+  }
+
+  private void transitionTo(State newState) {
+    State previous = state;
+    state = newState;
+    if (newState == State.OPEN) {
+      openedAt = clock.getAsLong();
+    } else if (newState == State.HALF_OPEN) {
+      probesStarted = 0;
+      probesSucceeded = 0;
+    } else {
+      calls = 0;
+      next = 0;
+      failures = 0;
+      slowCalls = 0;
+    }
+    onTransition.accept(previous, newState);
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+/**
+ * A cached value and the time it had left before expiring when it was read.
+ */
+public final class ExpiringValue<V> {
+
+  private final V value;
+  private final long timeToLiveInMillis;
+
+  public ExpiringValue(V value, long timeToLiveInMillis) {
+    this.value = value;
+    this.timeToLiveInMillis = timeToLiveInMillis;
+  }
+
+  public V getValue() {
+    return value;
+  }
+
+  /**
+   * Time left before the value expires, in milliseconds, negative if it never expires or the
+   * time is unknown.
+   */
+  public long getTimeToLiveInMillis() {
+    return timeToLiveInMillis;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Restaurant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link RestaurantCache} held in the process, bounded in entries and expiring them after a
+ * time to live, least recently used entries evicted first.
+ *
+ * <p>Serves as the near cache in front of Redis, as the whole cache of a single node
+ * (qeats.cache.backend=memory) and as a stand-in for Redis in tests and benchmarks. Cells with
+ * no candidates can be given a shorter time to live than the others. Nothing is
+ * serialized, cells hold the very restaurants they were given. Locks are always granted, the
+ * cache is not shared with other nodes and concurrent loads within the node already wait on
+ * each other.
+ */
+public class InMemoryRestaurantCache implements RestaurantCache {
+
+  private final NearCache<List<Restaurant>> cells;
+  private final long negativeTtlNanos;
+
+  public InMemoryRestaurantCache(int maxEntries, long ttl, TimeUnit unit) {
+    this(maxEntries, ttl, ttl, unit);
+  }
+
+  /**
+   * Create a cache keeping cells without candidates for negativeTtl only.
+   */
+  public InMemoryRestaurantCache(int maxEntries, long ttl, long negativeTtl, TimeUnit unit) {
+    this(maxEntries, ttl, negativeTtl, unit, System::nanoTime);
+  }
+
+  InMemoryRestaurantCache(int maxEntries, long ttl, long negativeTtl, TimeUnit unit,
+      LongSupplier nanoClock) {
+    this.cells = new NearCache<>(maxEntries, ttl, unit, nanoClock);
+    this.negativeTtlNanos = unit.toNanos(Math.min(ttl, negativeTtl));
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return true;
+  }
+
+  @Override
+  public List<Restaurant> get(String cellKey) {
+    return cells.get(cellKey);
+  }
+
+  @Override
+  public void put(String cellKey, List<Restaurant> restaurants) {
+    if (restaurants.isEmpty()) {
+      cells.put(cellKey, Collections.emptyList(), negativeTtlNanos, TimeUnit.NANOSECONDS);
+    } else {
+      cells.put(cellKey, Collections.unmodifiableList(restaurants));
+    }
+  }
+
+  @Override
+  public ExpiringValue<List<Restaurant>> getWithTimeToLive(String cellKey) {
+    List<Restaurant> restaurants = cells.get(cellKey);
+    return restaurants == null ? null
+        : new ExpiringValue<>(restaurants, getTimeToLiveInMillis(cellKey));
+  }
+
+  /**
+   * Time left before the candidates cached for a cell expire.
+   * @return the time left in milliseconds, negative if the cell is not cached
+   */
+  public long getTimeToLiveInMillis(String cellKey) {
+    long timeToLiveNanos = cells.getTimeToLiveNanos(cellKey);
+    return timeToLiveNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(timeToLiveNanos);
+  }
+
+  /**
+   * Rewrites every cell holding the restaurant, keeping their expiry. Scans the whole cache,
+   * updates are rare next to reads.
+   */
+  @Override
+  public void update(Restaurant restaurant) {
+    cells.replaceAll(restaurants -> {
+      List<Restaurant> updated = null;
+      for (int i = 0; i < restaurants.size(); i++) {
+        if (restaurants.get(i).getRestaurantId().equals(restaurant.getRestaurantId())) {
+          if (updated == null) {
+            updated = new ArrayList<>(restaurants);
+          }
+          updated.set(i, restaurant);
+        }
+      }
+      return updated == null ? restaurants : Collections.unmodifiableList(updated);
+    });
+  }
+
+  @Override
+  public LockResult tryLock(String key, String token, long ttlInMillis) {
+    return LockResult.ACQUIRED;
+  }
+
+  @Override
+  public void unlock(String key, String token) {
+  }
+
+  public void invalidate(String cellKey) {
+    cells.invalidate(cellKey);
+  }
+
+  public void invalidateAll() {
+    cells.invalidateAll();
+  }
+
+  public int size() {
+    return cells.size();
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Restaurant;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * The restaurant as the JSON object served by the API.
+ */
+@Component
+public class JsonRestaurantCodec implements RestaurantCodec {
+
+  public static final String NAME = "json";
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  // Version 1 was a JSON array of restaurants.
+  @Override
+  public byte version() {
+    return 3;
+  }
+
+  @Override
+  public byte[] encode(Restaurant restaurant) throws IOException {
+    return objectMapper.writeValueAsBytes(restaurant);
+  }
+
+  @Override
+  public Restaurant decode(byte[] bytes, int offset, int length) throws IOException {
+    return objectMapper.readValue(bytes, offset, length, Restaurant.class);
+  }
+}
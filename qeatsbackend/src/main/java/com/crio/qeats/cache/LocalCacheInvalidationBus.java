@@ -0,0 +1,24 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * {@link CacheInvalidationBus} of a single node (qeats.cache.backend=memory). There is no other
+ * node to tell, so nothing is published and listeners are never called.
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+  @Override
+  public void addListener(Consumer<String> listener) {
+  }
+
+  @Override
+  public void publish(String key) {
+  }
+}
@@ -0,0 +1,19 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+/**
+ * Outcome of an attempt to take a cache lock.
+ */
+public enum LockResult {
+  // The caller now holds the lock.
+  ACQUIRED,
+  // Another caller holds the lock.
+  HELD,
+  // The cache could not be asked, nobody is known to hold the lock.
+  FAILED
+}
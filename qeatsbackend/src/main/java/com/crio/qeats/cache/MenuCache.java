@@ -0,0 +1,113 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.dto.Menu;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process cache of restaurant menus, each held with an index of its items by item id, so that
+ * cart operations find an item without a database read or a scan of the menu.
+ *
+ * <p>Menus expire after qeats.cache.menu.ttl-seconds. {@link #invalidate} drops a menu on every
+ * node through the {@link CacheInvalidationBus}, under a key made of {@link #KEY_PREFIX} and the
+ * restaurant id.
+ */
+@Component
+public class MenuCache {
+
+  public static final String KEY_PREFIX = "menu:";
+
+  @Value("${qeats.cache.menu.max-entries:10000}")
+  private int maxEntries;
+
+  @Value("${qeats.cache.menu.ttl-seconds:300}")
+  private long ttlInSeconds;
+
+  @Autowired
+  private CacheInvalidationBus cacheInvalidationBus;
+
+  private NearCache<CachedMenu> menus;
+
+  @PostConstruct
+  private void init() {
+    menus = new NearCache<>(maxEntries, ttlInSeconds, TimeUnit.SECONDS);
+    cacheInvalidationBus.addListener(key -> {
+      if (CacheInvalidationBus.ALL_KEYS.equals(key)) {
+        menus.invalidateAll();
+      } else if (key.startsWith(KEY_PREFIX)) {
+        menus.invalidate(key.substring(KEY_PREFIX.length()));
+      }
+    });
+  }
+
+  /**
+   * Get the menu cached for the restaurant.
+   * @return the menu, null on a miss
+   */
+  public CachedMenu get(String restaurantId) {
+    return menus.get(restaurantId);
+  }
+
+  public CachedMenu put(Menu menu) {
+    CachedMenu cachedMenu = new CachedMenu(menu);
+    menus.put(menu.getRestaurantId(), cachedMenu);
+    return cachedMenu;
+  }
+
+  /**
+   * Drop the menu of the restaurant here and on the other nodes, after it changed.
+   */
+  public void invalidate(String restaurantId) {
+    menus.invalidate(restaurantId);
+    cacheInvalidationBus.publish(KEY_PREFIX + restaurantId);
+  }
+
+  public void invalidateAll() {
+    menus.invalidateAll();
+  }
+
+  /**
+   * A menu and the index of its items. Shared by every caller, neither is to be modified.
+   */
+  public static final class CachedMenu {
+
+    private final Menu menu;
+    private final Map<String, Item> itemsById;
+
+    private CachedMenu(Menu menu) {
+      List<Item> items = Collections.unmodifiableList(menu.getItems());
+      this.menu = new Menu(menu.getRestaurantId(), items);
+      this.itemsById = new HashMap<>(items.size() * 2);
+      for (Item item : items) {
+        // The first of duplicate ids wins, like the scan of the menu it replaces.
+        itemsById.putIfAbsent(item.getItemId(), item);
+      }
+    }
+
+    public Menu getMenu() {
+      return menu;
+    }
+
+    /**
+     * Find an item of the menu.
+     * @return the item, null if the menu has no such item
+     */
+    public Item getItem(String itemId) {
+      return itemsById.get(itemId);
+    }
+  }
+}
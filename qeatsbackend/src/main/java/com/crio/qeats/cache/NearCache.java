@@ -0,0 +1,112 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded in-process cache with a time to live.
+ *
+ * <p>Entries expire a fixed time after they were written. Past the maximum size the least
+ * recently used entry is evicted. Meant as a small first tier in front of Redis, so that hot keys
+ * are served without a network round trip.
+ */
+public class NearCache<V> {
+
+  private final int maxEntries;
+  private final long ttlNanos;
+  private final LongSupplier nanoClock;
+  private final LinkedHashMap<String, Entry<V>> entries;
+
+  public NearCache(int maxEntries, long ttl, TimeUnit unit) {
+    this(maxEntries, ttl, unit, System::nanoTime);
+  }
+
+  NearCache(int maxEntries, long ttl, TimeUnit unit, LongSupplier nanoClock) {
+    this.maxEntries = maxEntries;
+    this.ttlNanos = unit.toNanos(ttl);
+    this.nanoClock = nanoClock;
+    this.entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+        return size() > NearCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Get the value cached for the key.
+   * @return the value, null if absent or expired
+   */
+  public synchronized V get(String key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (nanoClock.getAsLong() - entry.expiresAtNanos >= 0) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.value;
+  }
+
+  /**
+   * Time left before the entry of the key expires.
+   * @return the time left in nanoseconds, negative if absent or expired
+   */
+  public synchronized long getTimeToLiveNanos(String key) {
+    Entry<V> entry = entries.get(key);
+    return entry == null ? -1 : entry.expiresAtNanos - nanoClock.getAsLong();
+  }
+
+  public synchronized void put(String key, V value) {
+    entries.put(key, new Entry<>(value, nanoClock.getAsLong() + ttlNanos));
+  }
+
+  /**
+   * Cache a value for a time to live of its own instead of the cache's.
+   */
+  public synchronized void put(String key, V value, long ttl, TimeUnit unit) {
+    entries.put(key, new Entry<>(value, nanoClock.getAsLong() + unit.toNanos(ttl)));
+  }
+
+  /**
+   * Replace every cached value by the result of the function, keeping its expiry and its place
+   * in the eviction order.
+   */
+  public synchronized void replaceAll(UnaryOperator<V> function) {
+    entries.replaceAll((key, entry) -> new Entry<>(function.apply(entry.value),
+        entry.expiresAtNanos));
+  }
+
+  public synchronized void invalidate(String key) {
+    entries.remove(key);
+  }
+
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private static final class Entry<V> {
+
+    private final V value;
+    private final long expiresAtNanos;
+
+    private Entry(V value, long expiresAtNanos) {
+      this.value = value;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
+}
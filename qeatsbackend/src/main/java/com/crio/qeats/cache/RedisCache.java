@@ -0,0 +1,312 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * Redis client of the caches, every connection borrowed from the pool is returned before the
+ * call ends.
+ *
+ * <p>Entries are written with the configured TTL. Redis errors are logged and reported as
+ * misses, callers fall back to the database. Running out of pooled connections is counted as
+ * {@code qeats.redis.pool.exhausted}, the pool size is published as the
+ * {@code qeats.redis.pool.active}, {@code idle} and {@code waiters} gauges.
+ *
+ * <p>Every command goes through a {@link CircuitBreaker} fed with its errors and latency. While
+ * it is open, commands are refused without touching the pool and counted as
+ * {@code qeats.redis.circuit.rejected}, and {@link #isAvailable} sends callers to the database.
+ * State changes are counted as {@code qeats.redis.circuit.transitions} tagged {@code from} and
+ * {@code to}, the current state is the {@code qeats.redis.circuit.state} gauge (0 closed, 1 open,
+ * 2 half-open).
+ */
+@Component
+@Slf4j
+public class RedisCache {
+
+  // Deletes the lock only if it still holds the caller's token, it may have expired and been
+  // taken by another node meanwhile.
+  private static final String UNLOCK_SCRIPT =
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) "
+          + "else return 0 end";
+
+  @Value("${qeats.redis.host:localhost}")
+  private String host;
+
+  @Value("${qeats.redis.port:6379}")
+  private int port;
+
+  @Value("${qeats.redis.timeout-millis:2000}")
+  private int timeoutInMillis;
+
+  @Value("${qeats.redis.pool.max-total:8}")
+  private int maxTotal;
+
+  @Value("${qeats.redis.pool.max-wait-millis:200}")
+  private long maxWaitInMillis;
+
+  @Value("${qeats.cache.ttl-seconds:3600}")
+  private int ttlInSeconds;
+
+  @Value("${qeats.redis.circuit.window-size:50}")
+  private int circuitWindowSize;
+
+  @Value("${qeats.redis.circuit.minimum-calls:20}")
+  private int circuitMinimumCalls;
+
+  @Value("${qeats.redis.circuit.failure-rate-percent:50}")
+  private int circuitFailureRatePercent;
+
+  @Value("${qeats.redis.circuit.slow-call-millis:100}")
+  private long circuitSlowCallInMillis;
+
+  @Value("${qeats.redis.circuit.slow-call-rate-percent:80}")
+  private int circuitSlowCallRatePercent;
+
+  @Value("${qeats.redis.circuit.open-millis:5000}")
+  private long circuitOpenInMillis;
+
+  @Value("${qeats.redis.circuit.half-open-probes:3}")
+  private int circuitHalfOpenProbes;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private JedisPool jedisPool;
+  private Counter poolExhausted;
+  private CircuitBreaker circuitBreaker;
+  private Counter circuitRejected;
+  private volatile CircuitBreaker.State circuitState = CircuitBreaker.State.CLOSED;
+
+  @PostConstruct
+  private void init() {
+    JedisPoolConfig poolConfig = new JedisPoolConfig();
+    poolConfig.setMaxTotal(maxTotal);
+    poolConfig.setMaxIdle(maxTotal);
+    poolConfig.setMaxWaitMillis(maxWaitInMillis);
+    jedisPool = new JedisPool(poolConfig, host, port, timeoutInMillis);
+
+    poolExhausted = Counter.builder("qeats.redis.pool.exhausted").register(meterRegistry);
+    Gauge.builder("qeats.redis.pool.active", jedisPool, JedisPool::getNumActive)
+        .register(meterRegistry);
+    Gauge.builder("qeats.redis.pool.idle", jedisPool, JedisPool::getNumIdle)
+        .register(meterRegistry);
+    Gauge.builder("qeats.redis.pool.waiters", jedisPool, JedisPool::getNumWaiters)
+        .register(meterRegistry);
+
+    circuitBreaker = new CircuitBreaker(circuitWindowSize, circuitMinimumCalls,
+        circuitFailureRatePercent, TimeUnit.MILLISECONDS.toNanos(circuitSlowCallInMillis),
+        circuitSlowCallRatePercent, TimeUnit.MILLISECONDS.toNanos(circuitOpenInMillis),
+        circuitHalfOpenProbes, System::nanoTime, this::onCircuitTransition);
+    circuitRejected = Counter.builder("qeats.redis.circuit.rejected").register(meterRegistry);
+    Gauge.builder("qeats.redis.circuit.state", this, cache -> cache.circuitState.ordinal())
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  private void close() {
+    jedisPool.close();
+  }
+
+  /**
+   * Whether callers should use the cache at all. False while the circuit breaker is open, so
+   * that requests go straight to the database instead of queueing on an unhealthy Redis.
+   */
+  public boolean isAvailable() {
+    return !jedisPool.isClosed() && circuitBreaker.getState() != CircuitBreaker.State.OPEN;
+  }
+
+  public int getTtlInSeconds() {
+    return ttlInSeconds;
+  }
+
+  /**
+   * Get the binary value of a key.
+   * @return the value, null if the key is missing or Redis could not be reached
+   */
+  public byte[] getBytes(String key) {
+    return call("GET " + key, jedis -> jedis.get(encode(key)), null);
+  }
+
+  /**
+   * Get the binary value of a key and the time left before it expires, in a single round trip.
+   * @return the value and its time to live in milliseconds, negative if it never expires; null
+   *     if the key is missing or Redis could not be reached
+   */
+  public ExpiringValue<byte[]> getBytesWithTimeToLive(String key) {
+    return call("GET " + key, jedis -> {
+      Pipeline pipeline = jedis.pipelined();
+      Response<byte[]> value = pipeline.get(encode(key));
+      Response<Long> timeToLive = pipeline.pttl(encode(key));
+      pipeline.sync();
+      return value.get() == null ? null : new ExpiringValue<>(value.get(), timeToLive.get());
+    }, null);
+  }
+
+  /**
+   * Get the binary values of keys with a single MGET.
+   * @return the values in the order of the keys, null for the missing ones, all null if Redis
+   *     could not be reached
+   */
+  public List<byte[]> getAllBytes(List<String> keys) {
+    if (keys.isEmpty()) {
+      return new ArrayList<>();
+    }
+    byte[][] rawKeys = new byte[keys.size()][];
+    for (int i = 0; i < rawKeys.length; i++) {
+      rawKeys[i] = encode(keys.get(i));
+    }
+    return call("MGET " + keys.size() + " keys", jedis -> jedis.mget(rawKeys),
+        new ArrayList<>(Collections.nCopies(keys.size(), null)));
+  }
+
+  /**
+   * Set a key to a binary value, expiring after the configured TTL.
+   */
+  public void putBytes(String key, byte[] value) {
+    putBytes(key, value, ttlInSeconds);
+  }
+
+  /**
+   * Set a key to a binary value, expiring after the given TTL instead of the configured one.
+   */
+  public void putBytes(String key, byte[] value, int ttlInSeconds) {
+    call("SETEX " + key, jedis -> jedis.setex(encode(key), ttlInSeconds, value), null);
+  }
+
+  /**
+   * Set keys to binary values in a single round trip, in the iteration order of the map. Each
+   * key expires after the configured TTL.
+   */
+  public void putAllBytes(Map<String, byte[]> values) {
+    if (values.isEmpty()) {
+      return;
+    }
+    call("SETEX " + values.size() + " keys", jedis -> {
+      Pipeline pipeline = jedis.pipelined();
+      for (Map.Entry<String, byte[]> value : values.entrySet()) {
+        pipeline.setex(encode(value.getKey()), ttlInSeconds, value.getValue());
+      }
+      pipeline.sync();
+      return null;
+    }, null);
+  }
+
+  public void publish(String channel, String message) {
+    call("PUBLISH " + channel, jedis -> jedis.publish(channel, message), null);
+  }
+
+  /**
+   * Take a lock that expires by itself, so that a crashed holder never blocks the others.
+   * @return whether the lock is now held with the token, held by someone else, or could not be
+   *     asked for because Redis failed or the circuit breaker refused the call
+   */
+  public LockResult tryLock(String key, String token, long ttlInMillis) {
+    return call("SET NX " + key,
+        jedis -> "OK".equals(jedis.set(key, token, "NX", "PX", ttlInMillis))
+            ? LockResult.ACQUIRED : LockResult.HELD, LockResult.FAILED);
+  }
+
+  /**
+   * Release a lock taken with {@link #tryLock}, a no-op if it expired in the meantime.
+   */
+  public void unlock(String key, String token) {
+    call("unlock " + key, jedis -> jedis.eval(UNLOCK_SCRIPT, 1, key, token), null);
+  }
+
+  /**
+   * Drop every key of the Redis database, for tests and for recovering from a stale cache.
+   */
+  public void flushAll() {
+    call("FLUSHALL", Jedis::flushAll, null);
+  }
+
+  /**
+   * Open a connection outside of the pool, for blocking commands such as SUBSCRIBE that would
+   * otherwise hold a pooled connection forever. Reads never time out. The caller closes it.
+   */
+  public Jedis openDedicatedConnection() {
+    return new Jedis(host, port, timeoutInMillis, 0);
+  }
+
+  // Visible for tests.
+  JedisPool getJedisPool() {
+    return jedisPool;
+  }
+
+  private static byte[] encode(String key) {
+    return key.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Run a command on a pooled connection unless the circuit breaker is open. Any exception
+   * counts as a failure of the breaker, only Redis errors are turned into the fallback.
+   * @return the result of the command, the fallback if it was refused or failed
+   */
+  private <T> T call(String command, Function<Jedis, T> operation, T fallback) {
+    if (!circuitBreaker.tryAcquire()) {
+      circuitRejected.increment();
+      return fallback;
+    }
+    try {
+      return circuitBreaker.call(() -> {
+        try (Jedis jedis = jedisPool.getResource()) {
+          return operation.apply(jedis);
+        }
+      });
+    } catch (JedisException e) {
+      onError(command, e);
+      return fallback;
+    }
+  }
+
+  private void onCircuitTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+    circuitState = to;
+    Counter.builder("qeats.redis.circuit.transitions")
+        .tag("from", from.name().toLowerCase())
+        .tag("to", to.name().toLowerCase())
+        .register(meterRegistry)
+        .increment();
+    if (to == CircuitBreaker.State.OPEN) {
+      log.warn("Redis circuit breaker opened, serving from the database for {} ms",
+          circuitOpenInMillis);
+    } else {
+      log.info("Redis circuit breaker moved from {} to {}", from, to);
+    }
+  }
+
+  private void onError(String command, JedisException e) {
+    if (e.getCause() instanceof NoSuchElementException) {
+      poolExhausted.increment();
+      log.warn("Redis pool exhausted, skipped {}", command);
+    } else {
+      log.warn("Redis {} failed: {}", command, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * {@link CacheInvalidationBus} over Redis pub/sub, the bus of the redis backend.
+ *
+ * <p>Messages carry the id of the publishing node, a node ignores its own messages. A daemon
+ * thread holds the subscription on a dedicated connection and resubscribes while Redis is down.
+ */
+@Component
+@ConditionalOnProperty(name = "qeats.cache.backend", havingValue = "redis", matchIfMissing = true)
+@Slf4j
+public class RedisCacheInvalidationBus implements CacheInvalidationBus {
+
+  public static final String CHANNEL = "qeats:cache:invalidations";
+
+  private static final char SEPARATOR = ' ';
+  private static final long RESUBSCRIBE_DELAY_IN_MILLIS = 5000;
+
+  @Autowired
+  private RedisCache redisCache;
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+  private final JedisPubSub subscription = new JedisPubSub() {
+    @Override
+    public void onMessage(String channel, String message) {
+      deliver(message);
+    }
+  };
+
+  private volatile boolean running;
+  private Thread subscriber;
+
+  @PostConstruct
+  private void start() {
+    running = true;
+    subscriber = new Thread(this::subscribe, "qeats-cache-invalidations");
+    subscriber.setDaemon(true);
+    subscriber.start();
+  }
+
+  @PreDestroy
+  private void stop() {
+    running = false;
+    if (subscription.isSubscribed()) {
+      subscription.unsubscribe();
+    }
+    subscriber.interrupt();
+  }
+
+  @Override
+  public void addListener(Consumer<String> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void publish(String key) {
+    redisCache.publish(CHANNEL, nodeId + SEPARATOR + key);
+  }
+
+  private void subscribe() {
+    while (running) {
+      try (Jedis jedis = redisCache.openDedicatedConnection()) {
+        jedis.subscribe(subscription, CHANNEL);
+      } catch (JedisException e) {
+        log.debug("Cache invalidation subscription lost: {}", e.getMessage());
+      }
+      if (running) {
+        try {
+          Thread.sleep(RESUBSCRIBE_DELAY_IN_MILLIS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void deliver(String message) {
+    int separator = message.indexOf(SEPARATOR);
+    if (separator < 0 || message.substring(0, separator).equals(nodeId)) {
+      return;
+    }
+    String key = message.substring(separator + 1);
+    for (Consumer<String> listener : listeners) {
+      listener.accept(key);
+    }
+  }
+}
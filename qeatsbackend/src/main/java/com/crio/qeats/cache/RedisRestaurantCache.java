@@ -0,0 +1,164 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Restaurant;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link RestaurantCache} in Redis, shared by every node. The default backend.
+ *
+ * <p>A cell only stores the ids of its candidates, under {@link #CELL_KEY_PREFIX} followed by the
+ * cell key. The restaurants themselves are stored once each, under {@link #RESTAURANT_KEY_PREFIX}
+ * followed by their id with a TTL of their own, and read back with a single MGET. Neighbouring
+ * cells share most of their candidates, so a restaurant takes the space of its id in each cell
+ * instead of its whole document, and updating it rewrites one key. Restaurants no cell refers to
+ * any more expire on their own, and keys written at different times expire at different times.
+ *
+ * <p>A cell whose restaurants are not all cached any more is read as a miss and reloaded. A cell
+ * without candidates is cached as an empty id list, read back as an empty list without reading
+ * any restaurant. It expires after qeats.cache.negative-ttl-seconds, so that restaurants
+ * opening in an empty area show up sooner than the cache TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "qeats.cache.backend", havingValue = "redis", matchIfMissing = true)
+@Slf4j
+public class RedisRestaurantCache implements RestaurantCache {
+
+  public static final String CELL_KEY_PREFIX = "cell:";
+  public static final String RESTAURANT_KEY_PREFIX = "restaurant:";
+
+  private static final char ID_SEPARATOR = '\n';
+
+  @Value("${qeats.cache.negative-ttl-seconds:300}")
+  private int negativeTtlInSeconds;
+
+  @Autowired
+  private RedisCache redisCache;
+
+  @Autowired
+  private RestaurantCacheSerializer restaurantCacheSerializer;
+
+  @Override
+  public boolean isAvailable() {
+    return redisCache.isAvailable();
+  }
+
+  @Override
+  public List<Restaurant> get(String cellKey) {
+    byte[] ids = redisCache.getBytes(CELL_KEY_PREFIX + cellKey);
+    return ids == null ? null : getRestaurants(cellKey, ids);
+  }
+
+  /**
+   * Reads the time to live in the same round trip as the ids of the cell.
+   */
+  @Override
+  public ExpiringValue<List<Restaurant>> getWithTimeToLive(String cellKey) {
+    ExpiringValue<byte[]> ids = redisCache.getBytesWithTimeToLive(CELL_KEY_PREFIX + cellKey);
+    if (ids == null) {
+      return null;
+    }
+    List<Restaurant> restaurants = getRestaurants(cellKey, ids.getValue());
+    return restaurants == null ? null
+        : new ExpiringValue<>(restaurants, ids.getTimeToLiveInMillis());
+  }
+
+  // Restaurants of a cell's ids, null if any of them is not cached any more.
+  private List<Restaurant> getRestaurants(String cellKey, byte[] ids) {
+    List<String> restaurantKeys = new ArrayList<>();
+    for (String restaurantId : decodeIds(ids)) {
+      restaurantKeys.add(RESTAURANT_KEY_PREFIX + restaurantId);
+    }
+    List<byte[]> values = redisCache.getAllBytes(restaurantKeys);
+    List<Restaurant> restaurants = new ArrayList<>(values.size());
+    try {
+      for (byte[] value : values) {
+        if (value == null) {
+          return null;
+        }
+        restaurants.add(restaurantCacheSerializer.deserialize(value));
+      }
+    } catch (IOException e) {
+      log.warn("Ignoring unreadable cached restaurant of {}: {}", cellKey, e.getMessage());
+      return null;
+    }
+    return restaurants;
+  }
+
+  /**
+   * Cache the candidates themselves and then the cell, in a single round trip. The cell is
+   * written last, so that it never refers to restaurants that are not cached yet.
+   */
+  @Override
+  public void put(String cellKey, List<Restaurant> restaurants) throws IOException {
+    if (restaurants.isEmpty()) {
+      redisCache.putBytes(CELL_KEY_PREFIX + cellKey, new byte[0],
+          Math.min(negativeTtlInSeconds, redisCache.getTtlInSeconds()));
+      return;
+    }
+    Map<String, byte[]> values = new LinkedHashMap<>();
+    List<String> restaurantIds = new ArrayList<>(restaurants.size());
+    for (Restaurant restaurant : restaurants) {
+      restaurantIds.add(restaurant.getRestaurantId());
+      values.put(RESTAURANT_KEY_PREFIX + restaurant.getRestaurantId(),
+          restaurantCacheSerializer.serialize(restaurant));
+    }
+    values.put(CELL_KEY_PREFIX + cellKey, encodeIds(restaurantIds));
+    redisCache.putAllBytes(values);
+  }
+
+  /**
+   * Replace the cached copy of a restaurant in every cell at once, by rewriting its key.
+   * Near caches keep serving their copy until it expires.
+   */
+  @Override
+  public void update(Restaurant restaurant) throws IOException {
+    redisCache.putBytes(RESTAURANT_KEY_PREFIX + restaurant.getRestaurantId(),
+        restaurantCacheSerializer.serialize(restaurant));
+  }
+
+  @Override
+  public LockResult tryLock(String key, String token, long ttlInMillis) {
+    return redisCache.tryLock(key, token, ttlInMillis);
+  }
+
+  @Override
+  public void unlock(String key, String token) {
+    redisCache.unlock(key, token);
+  }
+
+  private static byte[] encodeIds(List<String> restaurantIds) {
+    StringBuilder ids = new StringBuilder();
+    for (String restaurantId : restaurantIds) {
+      if (ids.length() > 0) {
+        ids.append(ID_SEPARATOR);
+      }
+      ids.append(restaurantId);
+    }
+    return ids.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static List<String> decodeIds(byte[] ids) {
+    if (ids.length == 0) {
+      return new ArrayList<>();
+    }
+    return Arrays.asList(new String(ids, StandardCharsets.UTF_8)
+        .split(String.valueOf(ID_SEPARATOR), -1));
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads cache entries read shortly before they expire, in the background, so that hot keys
+ * never expire and no reader waits for the database. Readers keep getting the cached value
+ * meanwhile.
+ *
+ * <p>An entry read within its last qeats.cache.refresh-ahead.window-seconds is refreshed, so a
+ * reader gets values at most the cache TTL old, and hot entries are reloaded once they are
+ * TTL minus the window old. Refreshes run on qeats.cache.refresh-ahead.threads threads, a key is
+ * refreshed once at a time and at most queue-capacity of them wait. Published as the
+ * {@code qeats.cache.refresh.queue.depth} gauge and {@code qeats.cache.refreshes} counters
+ * tagged {@code result} (success, failure or rejected when the queue is full).
+ */
+@Component
+@Slf4j
+public class RefreshAhead {
+
+  @Value("${qeats.cache.refresh-ahead.enabled:true}")
+  private boolean enabled;
+
+  @Value("${qeats.cache.refresh-ahead.window-seconds:300}")
+  private long windowInSeconds;
+
+  @Value("${qeats.cache.refresh-ahead.threads:2}")
+  private int threads;
+
+  @Value("${qeats.cache.refresh-ahead.queue-capacity:1000}")
+  private int queueCapacity;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+  private ThreadPoolExecutor executor;
+  private Counter succeeded;
+  private Counter failed;
+  private Counter rejected;
+
+  @PostConstruct
+  private void init() {
+    AtomicInteger threadCount = new AtomicInteger();
+    executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable,
+              "qeats-cache-refresh-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    Gauge.builder("qeats.cache.refresh.queue.depth", executor, pool -> pool.getQueue().size())
+        .register(meterRegistry);
+    succeeded = refreshes("success");
+    failed = refreshes("failure");
+    rejected = refreshes("rejected");
+  }
+
+  @PreDestroy
+  private void close() {
+    executor.shutdownNow();
+  }
+
+  private Counter refreshes(String result) {
+    return Counter.builder("qeats.cache.refreshes").tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Schedule a refresh of the key if it expires within the window. Called on every read served
+   * from the cache.
+   *
+   * @param timeToLiveInMillis time left before the entry expires, read along with the entry,
+   *     negative if unknown
+   * @param refresh reloads the key and caches it
+   * @return true if a refresh was scheduled
+   */
+  public boolean refreshIfExpiring(String key, long timeToLiveInMillis, Runnable refresh) {
+    if (!enabled || timeToLiveInMillis < 0
+        || timeToLiveInMillis > TimeUnit.SECONDS.toMillis(windowInSeconds)
+        || !pendingKeys.add(key)) {
+      return false;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          refresh.run();
+          succeeded.increment();
+        } catch (RuntimeException e) {
+          failed.increment();
+          log.warn("Could not refresh {} ahead of expiry: {}", key, e.getMessage());
+        } finally {
+          pendingKeys.remove(key);
+        }
+      });
+      return true;
+    } catch (RejectedExecutionException e) {
+      pendingKeys.remove(key);
+      rejected.increment();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Restaurant;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Shared tier of the restaurant listing cache: the restaurant candidates of each cell, keyed by
+ * cell and serving radius.
+ *
+ * <p>Selected by qeats.cache.backend: {@code redis} ({@link RedisRestaurantCache}) shares the
+ * cache between nodes, {@code memory} ({@link InMemoryRestaurantCache}) keeps it in the process,
+ * for a single node, tests and benchmarks. Cached lists are shared, callers must not modify them
+ * or the restaurants they hold.
+ */
+public interface RestaurantCache {
+
+  /**
+   * Whether the cache can be used right now, callers go to the database when it cannot.
+   */
+  boolean isAvailable();
+
+  /**
+   * Get the candidates cached for a cell.
+   * @return the candidates in the order they were cached, null on a miss
+   */
+  List<Restaurant> get(String cellKey);
+
+  /**
+   * Cache the candidates of a cell. A cell without candidates is a negative entry, cached for a
+   * shorter time than the others.
+   */
+  void put(String cellKey, List<Restaurant> restaurants) throws IOException;
+
+  /**
+   * Get the candidates cached for a cell and the time left before they expire, read together.
+   * @return the candidates with their time to live in milliseconds, negative if they never
+   *     expire; null on a miss
+   */
+  ExpiringValue<List<Restaurant>> getWithTimeToLive(String cellKey);
+
+  /**
+   * Replace the cached copy of a restaurant in every cell holding it. Only for changes that keep
+   * the restaurant at the same location, a move changes which cells it is a candidate of.
+   *
+   * <p>QEats itself never writes restaurants, this is the hook for the process that does, such
+   * as an import of the restaurants collection. Without it, changes show up when cells expire.
+   */
+  void update(Restaurant restaurant) throws IOException;
+
+  /**
+   * Take a lock on a key, so that a single caller loads it. The lock expires by itself.
+   * @return whether the caller now holds the lock with the token, another caller holds it, or
+   *     the cache failed to answer
+   */
+  LockResult tryLock(String key, String token, long ttlInMillis);
+
+  /**
+   * Release a lock taken with {@link #tryLock}, a no-op if it expired in the meantime.
+   */
+  void unlock(String key, String token);
+}
@@ -0,0 +1,77 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Restaurant;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns restaurants into Redis values and back.
+ *
+ * <p>Every value starts with the version of the {@link RestaurantCodec} that wrote it. Values are
+ * written with the codec named by qeats.cache.codec and read with whichever codec their version
+ * names, so nodes can switch codecs one at a time. Values of an unknown version, including the
+ * plain JSON strings and restaurant lists cached by earlier releases, fail to decode and are
+ * reloaded.
+ */
+@Component
+public class RestaurantCacheSerializer {
+
+  private static final int HEADER_LENGTH = 1;
+
+  @Value("${qeats.cache.codec:binary}")
+  private String codecName;
+
+  @Autowired
+  private List<RestaurantCodec> codecs;
+
+  private RestaurantCodec codec;
+  private final Map<Byte, RestaurantCodec> codecsByVersion = new HashMap<>();
+
+  @PostConstruct
+  private void init() {
+    for (RestaurantCodec candidate : codecs) {
+      codecsByVersion.put(candidate.version(), candidate);
+      if (candidate.name().equals(codecName)) {
+        codec = candidate;
+      }
+    }
+    if (codec == null) {
+      throw new IllegalStateException("Unknown qeats.cache.codec " + codecName);
+    }
+  }
+
+  public byte[] serialize(Restaurant restaurant) throws IOException {
+    byte[] payload = codec.encode(restaurant);
+    byte[] value = new byte[HEADER_LENGTH + payload.length];
+    value[0] = codec.version();
+    System.arraycopy(payload, 0, value, HEADER_LENGTH, payload.length);
+    return value;
+  }
+
+  /**
+   * Decode a value written by any known codec.
+   * @throws IOException if the version is unknown or the value is malformed
+   */
+  public Restaurant deserialize(byte[] value) throws IOException {
+    if (value.length < HEADER_LENGTH) {
+      throw new IOException("Cache value too short");
+    }
+    RestaurantCodec valueCodec = codecsByVersion.get(value[0]);
+    if (valueCodec == null) {
+      throw new IOException("Unknown cache value version " + value[0]);
+    }
+    return valueCodec.decode(value, HEADER_LENGTH, value.length - HEADER_LENGTH);
+  }
+}
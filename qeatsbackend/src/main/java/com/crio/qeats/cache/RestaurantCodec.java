@@ -0,0 +1,31 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Restaurant;
+import java.io.IOException;
+
+/**
+ * Encoding of the restaurants cached in Redis, one value per restaurant.
+ *
+ * <p>{@link RestaurantCacheSerializer} writes the version of the codec in front of every value
+ * and picks the codec back from it when reading, so a version must never be reused for another
+ * encoding.
+ */
+public interface RestaurantCodec {
+
+  /**
+   * Name of the codec in the qeats.cache.codec property.
+   */
+  String name();
+
+  byte version();
+
+  byte[] encode(Restaurant restaurant) throws IOException;
+
+  Restaurant decode(byte[] bytes, int offset, int length) throws IOException;
+}
@@ -0,0 +1,79 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Restaurant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process first tier of the restaurant listing cache, keyed like the {@link RestaurantCache}
+ * entries.
+ *
+ * <p>Cached lists are read-only and shared between callers, which copy the restaurants they
+ * hand out since the service layer edits the restaurants it returns. Keys rewritten by another
+ * node are dropped through the {@link CacheInvalidationBus}.
+ */
+@Component
+public class RestaurantNearCache {
+
+  @Value("${qeats.cache.near.max-entries:10000}")
+  private int maxEntries;
+
+  @Value("${qeats.cache.near.ttl-seconds:30}")
+  private long ttlInSeconds;
+
+  @Autowired
+  private CacheMetrics cacheMetrics;
+
+  @Autowired
+  private CacheInvalidationBus cacheInvalidationBus;
+
+  private InMemoryRestaurantCache nearCache;
+
+  @PostConstruct
+  private void init() {
+    nearCache = new InMemoryRestaurantCache(maxEntries, ttlInSeconds, TimeUnit.SECONDS);
+    cacheInvalidationBus.addListener(key -> {
+      if (CacheInvalidationBus.ALL_KEYS.equals(key)) {
+        nearCache.invalidateAll();
+      } else {
+        nearCache.invalidate(key);
+      }
+    });
+  }
+
+  /**
+   * Get the restaurants cached for the key, not to be modified.
+   * @return the restaurants, null on a miss
+   */
+  public List<Restaurant> get(String key) {
+    List<Restaurant> restaurants = nearCache.get(key);
+    if (restaurants == null) {
+      cacheMetrics.recordMiss(CacheMetrics.L1);
+      return null;
+    }
+    cacheMetrics.recordHit(CacheMetrics.L1);
+    return restaurants;
+  }
+
+  public void put(String key, List<Restaurant> restaurants) {
+    nearCache.put(key, restaurants);
+  }
+
+  public void invalidate(String key) {
+    nearCache.invalidate(key);
+  }
+
+  public void invalidateAll() {
+    nearCache.invalidateAll();
+  }
+}
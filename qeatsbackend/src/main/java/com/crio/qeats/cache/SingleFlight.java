@@ -0,0 +1,64 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one load per key at a time, concurrent callers for the same key wait for the
+ * running load and share its result.
+ *
+ * <p>Nothing is remembered once a load ends, a call arriving after that starts a new load. A
+ * failed load is rethrown to every caller waiting on it.
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+
+  public V load(K key, Supplier<V> loader) {
+    CompletableFuture<V> load = new CompletableFuture<>();
+    CompletableFuture<V> running = loads.putIfAbsent(key, load);
+    if (running != null) {
+      return await(running);
+    }
+    try {
+      V value = loader.get();
+      load.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loads.remove(key, load);
+    }
+  }
+
+  /**
+   * Number of keys being loaded right now.
+   */
+  public int inFlight() {
+    return loads.size();
+  }
+
+  private static <V> V await(CompletableFuture<V> running) {
+    try {
+      return running.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
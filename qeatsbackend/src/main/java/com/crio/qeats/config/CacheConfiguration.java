@@ -0,0 +1,33 @@
+package com.crio.qeats.config;
+
+import com.crio.qeats.cache.CacheInvalidationBus;
+import com.crio.qeats.cache.InMemoryRestaurantCache;
+import com.crio.qeats.cache.LocalCacheInvalidationBus;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfiguration {
+
+  // The Redis backend and its invalidation bus are components of their own, active unless
+  // qeats.cache.backend says memory.
+  @Bean
+  @ConditionalOnProperty(name = "qeats.cache.backend", havingValue = "memory")
+  public InMemoryRestaurantCache inMemoryRestaurantCache(
+      @Value("${qeats.cache.memory.max-entries:100000}") int maxEntries,
+      @Value("${qeats.cache.ttl-seconds:3600}") long ttlInSeconds,
+      @Value("${qeats.cache.negative-ttl-seconds:300}") long negativeTtlInSeconds) {
+    return new InMemoryRestaurantCache(maxEntries, ttlInSeconds, negativeTtlInSeconds,
+        TimeUnit.SECONDS);
+  }
+
+  // A single node has no other node to tell, and no Redis subscription to keep.
+  @Bean
+  @ConditionalOnProperty(name = "qeats.cache.backend", havingValue = "memory")
+  public CacheInvalidationBus localCacheInvalidationBus() {
+    return new LocalCacheInvalidationBus();
+  }
+}
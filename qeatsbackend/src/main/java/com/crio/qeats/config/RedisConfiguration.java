@@ -1,8 +1,6 @@
 package com.crio.qeats.config;
 
-import static com.crio.qeats.globals.GlobalConstants.REDIS_HOST;
-import static com.crio.qeats.globals.GlobalConstants.REDIS_PORT;
-
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
@@ -16,10 +14,17 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 public class RedisConfiguration {
 
+  // Same Redis server as com.crio.qeats.cache.RedisCache.
+  @Value("${qeats.redis.host:localhost}")
+  private String host;
+
+  @Value("${qeats.redis.port:6379}")
+  private int port;
+
   @Bean
   JedisConnectionFactory jedisConnectionFactory() {
     RedisStandaloneConfiguration configuration
-        = new RedisStandaloneConfiguration(REDIS_HOST, REDIS_PORT);
+        = new RedisStandaloneConfiguration(host, port);
     JedisClientConfiguration jedisClientConfiguration = JedisClientConfiguration.builder()
         .usePooling().build();
     JedisConnectionFactory factory
@@ -1,6 +1,7 @@
 package com.crio.qeats.config;
 
 import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
@@ -26,4 +27,21 @@ public class SpringAsyncConfiguration implements AsyncConfigurer {
     executor.initialize();
     return executor;
   }
+
+  /**
+   * Runs the search categories of a query in parallel, kept apart from restaurantExecutor so
+   * that a burst of searches cannot starve other async work. A full queue fails the category,
+   * which is then left out of the results.
+   */
+  @Bean(name = "searchExecutor")
+  public Executor searchExecutor(@Value("${qeats.search.threads:16}") int threads,
+      @Value("${qeats.search.queue-capacity:500}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setMaxPoolSize(threads);
+    executor.setCorePoolSize(threads);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("SearchCategory-");
+    executor.initialize();
+    return executor;
+  }
 }
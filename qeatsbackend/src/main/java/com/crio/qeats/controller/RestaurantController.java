@@ -20,10 +20,19 @@ import com.crio.qeats.exchanges.PostOrderRequest;
 import com.crio.qeats.services.CartAndOrderService;
 import com.crio.qeats.services.MenuService;
 import com.crio.qeats.services.RestaurantService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalTime;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import javax.servlet.http.HttpServletResponse;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -41,6 +50,7 @@ public class RestaurantController {
 
   public static final String RESTAURANT_API_ENDPOINT = "/qeats/v1";
   public static final String RESTAURANTS_API = "/restaurants";
+  public static final String RESTAURANTS_ASYNC_API = "/restaurants/async";
   public static final String MENU_API = "/menu";
   public static final String CART_API = "/cart";
   public static final String CART_ITEM_API = "/cart/item";
@@ -57,12 +67,18 @@ public class RestaurantController {
   @Autowired
   private CartAndOrderService cartAndOrderService;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${qeats.restaurants.streaming:false}")
+  private boolean streamRestaurants;
+
   // COMPLETED: CRIO_TASK_MODULE_MULTITHREADING - Improve the performance of this GetRestaurants API
   //  and keep the functionality same.
   // Get the list of open restaurants near the specified latitude/longitude & matching searchFor.
   // API URI: /qeats/v1/restaurants?latitude=21.93&longitude=23.0&searchFor=tamil
   // Method: GET
-  // Query Params: latitude, longitude, searchFor(optional)
+  // Query Params: latitude, longitude, searchFor(optional), limit(optional), cursor(optional)
   // Success Output:
   // 1). If searchFor param is present, return restaurants as a list matching the following criteria
   //   1) open now
@@ -89,6 +105,9 @@ public class RestaurantController {
   // 2). If searchFor param is absent,
   //     1) If there are restaurants near by return the list
   //     2) Else return empty list
+  //     3) If limit or cursor is present, return at most limit (1-100, default 20) restaurants
+  //        nearest first, each with its "distanceInKms". When more remain the response carries
+  //        a "nextCursor"; pass it back as cursor to get the next page.
   //
   // - For peak hours: 8AM-10AM, 1PM-2PM, 7PM-9PM
   //   - service radius is 3KMs.
@@ -125,7 +144,8 @@ public class RestaurantController {
   // .536386&searchFor=tamil"
   @GetMapping(RESTAURANTS_API)
   public ResponseEntity<GetRestaurantsResponse> getRestaurants(
-      GetRestaurantsRequest getRestaurantsRequest) {
+      GetRestaurantsRequest getRestaurantsRequest, HttpServletResponse response)
+      throws IOException {
     log.info("getRestaurants called with {}", getRestaurantsRequest);
     if (!getRestaurantsRequest.isValid()) {
       return ResponseEntity.badRequest().build();
@@ -134,6 +154,14 @@ public class RestaurantController {
     GetRestaurantsResponse getRestaurantsResponse;
     final LocalTime now = LocalTime.now();
 
+    if (streamRestaurants && !getRestaurantsRequest.hasSearchQuery()
+        && !getRestaurantsRequest.isPaginated()) {
+      response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+      writeRestaurantsCloseBy(getRestaurantsRequest, now, response.getOutputStream());
+      // Already written to the response, there is no body left to return.
+      return null;
+    }
+
     if (getRestaurantsRequest.getSearchFor() != null) {
       getRestaurantsResponse =
           restaurantService.findRestaurantsBySearchQuery(getRestaurantsRequest, now);
@@ -146,6 +174,54 @@ public class RestaurantController {
     return ResponseEntity.ok().body(getRestaurantsResponse);
   }
 
+  /**
+   * Same parameters and response as {@link #getRestaurants}, without streaming. The servlet
+   * thread is released while the restaurants are looked up, the response is written once the
+   * search future completes.
+   */
+  @GetMapping(RESTAURANTS_ASYNC_API)
+  public CompletableFuture<ResponseEntity<GetRestaurantsResponse>> getRestaurantsAsync(
+      GetRestaurantsRequest getRestaurantsRequest) {
+    log.info("getRestaurantsAsync called with {}", getRestaurantsRequest);
+    if (!getRestaurantsRequest.isValid()) {
+      return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+    }
+
+    final LocalTime now = LocalTime.now();
+    return restaurantService.findRestaurantsBySearchQueryMt(getRestaurantsRequest, now)
+        .thenApply(getRestaurantsResponse -> {
+          log.info("getRestaurantsAsync returned {}", getRestaurantsResponse);
+          return ResponseEntity.ok().body(getRestaurantsResponse);
+        });
+  }
+
+  /**
+   * Writes the same JSON as {@link GetRestaurantsResponse}, one restaurant at a time as the
+   * service finds them. Nothing holds the full list, so memory per request stays bounded however
+   * many restaurants are around.
+   */
+  private void writeRestaurantsCloseBy(GetRestaurantsRequest getRestaurantsRequest,
+      LocalTime now, OutputStream outputStream) throws IOException {
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("restaurants");
+      int[] count = new int[1];
+      restaurantService.streamAllRestaurantsCloseBy(getRestaurantsRequest, now, restaurant -> {
+        try {
+          generator.writeObject(restaurant);
+          count[0]++;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      generator.writeEndArray();
+      generator.writeEndObject();
+      log.info("getRestaurants streamed {} restaurants", count[0]);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
   // TIP(MODULE_MENUAPI): Model Implementation for getting menu given a restaurantId.
   // Get the Menu for the given restaurantId
   // API URI: /qeats/v1/menu?restaurantId=11
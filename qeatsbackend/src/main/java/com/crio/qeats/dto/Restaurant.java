@@ -7,11 +7,13 @@
 package com.crio.qeats.dto;
 
 import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.OpeningHours;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -69,14 +71,13 @@ public class Restaurant {
   @JsonProperty(value = "attributes")
   List<String> attributes = new ArrayList<>();
 
+  // Distance from the requested location, only set on paginated listings.
+  @JsonProperty(value = "distanceInKms")
+  @JsonInclude(Include.NON_NULL)
+  Double distanceInKms;
+
   public boolean isOpen(LocalTime now) {
-    if (this.opensAt == null || this.closesAt == null) {
-      return true;
-    }
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
-    LocalTime opens = LocalTime.parse(opensAt, formatter);
-    LocalTime closes = LocalTime.parse(closesAt, formatter);
-    return now.isAfter(opens) && now.isBefore(closes);
+    return OpeningHours.of(opensAt, closesAt).isOpen(now);
   }
 
   @Override
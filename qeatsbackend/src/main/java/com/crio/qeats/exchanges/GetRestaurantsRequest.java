@@ -6,6 +6,7 @@
 
 package com.crio.qeats.exchanges;
 
+import com.crio.qeats.utils.DistanceCursor;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -24,9 +25,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 @Slf4j
 public class GetRestaurantsRequest {
 
+  public static final int DEFAULT_LIMIT = 20;
+  public static final int MAX_LIMIT = 100;
+
   Double latitude;
   Double longitude;
   String searchFor;
+  // Optional paging of the nearby listing, nearest first: page size, and where the previous
+  // page ended. A cursor alone pages with DEFAULT_LIMIT.
+  Integer limit;
+  String cursor;
 
   public GetRestaurantsRequest(Double latitude, Double longitude, String searchFor) {
     log.info("GetRestaurantsRequest AllArgs {} ", searchFor);
@@ -47,8 +55,26 @@ public class GetRestaurantsRequest {
     }
 
     // Range: Latitude [0-90], Longitude [0-180]
-    return this.latitude >= 0 && this.latitude <= 90 && this.longitude >= 0
-        && this.longitude <= 180;
+    if (this.latitude < 0 || this.latitude > 90 || this.longitude < 0
+        || this.longitude > 180) {
+      return false;
+    }
+
+    if (this.limit != null && (this.limit < 1 || this.limit > MAX_LIMIT)) {
+      return false;
+    }
+    if (this.cursor != null) {
+      try {
+        DistanceCursor.decode(this.cursor);
+      } catch (IllegalArgumentException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public boolean isPaginated() {
+    return limit != null || cursor != null;
   }
 
   public boolean hasSearchQuery() {
@@ -7,6 +7,8 @@
 package com.crio.qeats.exchanges;
 
 import com.crio.qeats.dto.Restaurant;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.ArrayList;
 import java.util.List;
@@ -55,4 +57,13 @@ public class GetRestaurantsResponse {
 
   @JsonProperty(value = "restaurants")
   List<Restaurant> restaurants;
+
+  // Cursor of the next page, absent on the last page and on unpaginated responses.
+  @JsonProperty(value = "nextCursor")
+  @JsonInclude(Include.NON_NULL)
+  String nextCursor;
+
+  public GetRestaurantsResponse(List<Restaurant> restaurants) {
+    this.restaurants = restaurants;
+  }
 }
@@ -0,0 +1,39 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import com.crio.qeats.dto.Cart;
+import com.crio.qeats.models.CartEntity;
+
+/**
+ * Maps carts between the stored document and the DTO, in both directions.
+ */
+public final class CartMapper {
+
+  private CartMapper() {
+  }
+
+  public static Cart toCart(CartEntity cartEntity) {
+    Cart cart = new Cart();
+    cart.setId(cartEntity.getId());
+    cart.setRestaurantId(cartEntity.getRestaurantId());
+    cart.setUserId(cartEntity.getUserId());
+    cart.setItems(MapperUtils.copyOf(cartEntity.getItems()));
+    cart.setTotal(cartEntity.getTotal());
+    return cart;
+  }
+
+  public static CartEntity toCartEntity(Cart cart) {
+    CartEntity cartEntity = new CartEntity();
+    cartEntity.setId(cart.getId());
+    cartEntity.setRestaurantId(cart.getRestaurantId());
+    cartEntity.setUserId(cart.getUserId());
+    cartEntity.setItems(MapperUtils.copyOf(cart.getItems()));
+    cartEntity.setTotal(cart.getTotal());
+    return cartEntity;
+  }
+}
@@ -0,0 +1,24 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class MapperUtils {
+
+  private MapperUtils() {
+  }
+
+  /**
+   * Copy a list so that entity and DTO never share one, a null list becomes empty.
+   * Elements are shared, the same as ModelMapper did for matching types.
+   */
+  static <T> List<T> copyOf(List<T> list) {
+    return list == null ? new ArrayList<>() : new ArrayList<>(list);
+  }
+}
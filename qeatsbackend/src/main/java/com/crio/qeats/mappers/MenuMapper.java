@@ -0,0 +1,23 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import com.crio.qeats.dto.Menu;
+import com.crio.qeats.models.MenuEntity;
+
+/**
+ * Maps menu documents to the DTO served by the API.
+ */
+public final class MenuMapper {
+
+  private MenuMapper() {
+  }
+
+  public static Menu toMenu(MenuEntity menuEntity) {
+    return new Menu(menuEntity.getRestaurantId(), MapperUtils.copyOf(menuEntity.getItems()));
+  }
+}
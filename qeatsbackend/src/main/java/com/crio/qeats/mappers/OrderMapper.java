@@ -0,0 +1,33 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import com.crio.qeats.dto.Order;
+import com.crio.qeats.models.OrderEntity;
+
+/**
+ * Maps order documents to the DTO served by the API.
+ */
+public final class OrderMapper {
+
+  private OrderMapper() {
+  }
+
+  /**
+   * Map an order document to its DTO. The document's placedTime becomes timePlaced.
+   */
+  public static Order toOrder(OrderEntity orderEntity) {
+    Order order = new Order();
+    order.setId(orderEntity.getId());
+    order.setRestaurantId(orderEntity.getRestaurantId());
+    order.setUserId(orderEntity.getUserId());
+    order.setItems(MapperUtils.copyOf(orderEntity.getItems()));
+    order.setTotal(orderEntity.getTotal());
+    order.setTimePlaced(orderEntity.getPlacedTime());
+    return order;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.models.RestaurantEntity;
+
+/**
+ * Maps restaurant documents to the DTO served by the API.
+ */
+public final class RestaurantMapper {
+
+  private RestaurantMapper() {
+  }
+
+  /**
+   * Map a restaurant document to its DTO. Missing coordinates map to 0.
+   */
+  public static Restaurant toRestaurant(RestaurantEntity restaurantEntity) {
+    Restaurant restaurant = new Restaurant();
+    restaurant.setRestaurantId(restaurantEntity.getRestaurantId());
+    restaurant.setName(restaurantEntity.getName());
+    restaurant.setCity(restaurantEntity.getCity());
+    restaurant.setImageUrl(restaurantEntity.getImageUrl());
+    if (restaurantEntity.getLatitude() != null) {
+      restaurant.setLatitude(restaurantEntity.getLatitude());
+    }
+    if (restaurantEntity.getLongitude() != null) {
+      restaurant.setLongitude(restaurantEntity.getLongitude());
+    }
+    restaurant.setOpensAt(restaurantEntity.getOpensAt());
+    restaurant.setClosesAt(restaurantEntity.getClosesAt());
+    restaurant.setAttributes(MapperUtils.copyOf(restaurantEntity.getAttributes()));
+    return restaurant;
+  }
+
+  /**
+   * Copy a restaurant so that a cached instance is never shared with a caller.
+   */
+  public static Restaurant copy(Restaurant restaurant) {
+    return new Restaurant(restaurant.getRestaurantId(), restaurant.getName(),
+        restaurant.getCity(), restaurant.getImageUrl(), restaurant.getLatitude(),
+        restaurant.getLongitude(), restaurant.getOpensAt(), restaurant.getClosesAt(),
+        MapperUtils.copyOf(restaurant.getAttributes()), restaurant.getDistanceInKms());
+  }
+}
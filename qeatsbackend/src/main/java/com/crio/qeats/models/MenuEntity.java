@@ -16,6 +16,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
@@ -28,6 +29,7 @@ public class MenuEntity {
   private String id;
 
   @NotNull
+  @Indexed
   private String restaurantId;
 
   @NotNull
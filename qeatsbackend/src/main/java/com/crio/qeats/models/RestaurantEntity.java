@@ -6,8 +6,9 @@
 
 package com.crio.qeats.models;
 
+import com.crio.qeats.utils.OpeningHours;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -15,6 +16,8 @@ import javax.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 // Java class that maps to Mongo collection.
@@ -27,6 +30,7 @@ public class RestaurantEntity {
   private String id;
 
   @NotNull
+  @Indexed
   private String restaurantId;
 
   @NotNull
@@ -44,6 +48,11 @@ public class RestaurantEntity {
   @NotNull
   private Double longitude;
 
+  // GeoJSON copy of latitude/longitude backing the 2dsphere index.
+  // Filled in on save by RestaurantLocationListener.
+  @JsonIgnore
+  private GeoJsonPoint location;
+
   @NotNull
   private String opensAt;
 
@@ -54,13 +63,7 @@ public class RestaurantEntity {
   private List<String> attributes = new ArrayList<>();
 
   public boolean isOpen(LocalTime now) {
-    if (this.opensAt == null || this.closesAt == null) {
-      return true;
-    }
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
-    LocalTime opens = LocalTime.parse(opensAt, formatter);
-    LocalTime closes = LocalTime.parse(closesAt, formatter);
-    return now.isAfter(opens) && now.isBefore(closes);
+    return OpeningHours.of(opensAt, closesAt).isOpen(now);
   }
 
   @Override
@@ -0,0 +1,31 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.repositories;
+
+import com.crio.qeats.models.RestaurantEntity;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives the GeoJSON location of a restaurant from its latitude/longitude before it is saved,
+ * so that the 2dsphere index never drifts from the plain coordinate fields.
+ */
+@Component
+public class RestaurantLocationListener extends AbstractMongoEventListener<RestaurantEntity> {
+
+  @Override
+  public void onBeforeConvert(BeforeConvertEvent<RestaurantEntity> event) {
+    RestaurantEntity restaurantEntity = event.getSource();
+    if (restaurantEntity.getLatitude() != null && restaurantEntity.getLongitude() != null) {
+      // GeoJSON stores [longitude, latitude].
+      restaurantEntity.setLocation(new GeoJsonPoint(restaurantEntity.getLongitude(),
+          restaurantEntity.getLatitude()));
+    }
+  }
+}
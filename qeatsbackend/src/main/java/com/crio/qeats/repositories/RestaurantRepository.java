@@ -9,6 +9,7 @@ package com.crio.qeats.repositories;
 import com.crio.qeats.models.RestaurantEntity;
 import java.util.List;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Shape;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
@@ -16,5 +17,11 @@ public interface RestaurantRepository extends MongoRepository<RestaurantEntity,
 
   @Override
   List<RestaurantEntity> findAll();
+
+  /**
+   * Find the restaurants whose location lies within the given shape ($geoWithin).
+   * Pass a {@link org.springframework.data.mongodb.core.geo.Sphere} for a spherical radius query.
+   */
+  List<RestaurantEntity> findByLocationWithin(Shape shape);
 }
 
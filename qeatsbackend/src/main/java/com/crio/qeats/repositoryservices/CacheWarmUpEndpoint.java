@@ -0,0 +1,36 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.repositoryservices;
+
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint showing the progress of the restaurant cache warm-up, POST to start one.
+ */
+@Component
+@Endpoint(id = "cachewarmup")
+public class CacheWarmUpEndpoint {
+
+  @Autowired
+  private RestaurantCacheWarmer restaurantCacheWarmer;
+
+  @ReadOperation
+  public Map<String, Object> progress() {
+    return restaurantCacheWarmer.progress();
+  }
+
+  @WriteOperation
+  public Map<String, Object> warmUp() {
+    restaurantCacheWarmer.start();
+    return restaurantCacheWarmer.progress();
+  }
+}
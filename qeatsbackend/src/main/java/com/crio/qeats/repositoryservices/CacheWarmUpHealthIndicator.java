@@ -0,0 +1,30 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.repositoryservices;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the node OUT_OF_SERVICE until the startup cache warm-up ends, so that load balancers
+ * only send traffic to nodes with a warm cache.
+ */
+@Component
+public class CacheWarmUpHealthIndicator implements HealthIndicator {
+
+  @Autowired
+  private RestaurantCacheWarmer restaurantCacheWarmer;
+
+  @Override
+  public Health health() {
+    Health.Builder health = restaurantCacheWarmer.isWarmingUp()
+        ? Health.outOfService() : Health.up();
+    return health.withDetails(restaurantCacheWarmer.progress()).build();
+  }
+}
@@ -9,11 +9,10 @@ package com.crio.qeats.repositoryservices;
 import com.crio.qeats.dto.Cart;
 import com.crio.qeats.dto.Item;
 import com.crio.qeats.exceptions.CartNotFoundException;
+import com.crio.qeats.mappers.CartMapper;
 import com.crio.qeats.models.CartEntity;
 import com.crio.qeats.repositories.CartRepository;
 import java.util.Optional;
-import javax.inject.Provider;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -23,25 +22,18 @@ public class CartRepositoryServiceImpl implements CartRepositoryService {
   @Autowired
   private CartRepository cartRepository;
 
-  @Autowired
-  private Provider<ModelMapper> modelMapperProvider;
-
   @Override
   public String createCart(Cart cart) {
-    ModelMapper mapper = modelMapperProvider.get();
-    CartEntity cartEntity = cartRepository.save(mapper.map(cart, CartEntity.class));
+    CartEntity cartEntity = cartRepository.save(CartMapper.toCartEntity(cart));
     return cartEntity.getId();
   }
 
   @Override
   public Optional<Cart> findCartByUserId(String userId) {
-    ModelMapper mapper = modelMapperProvider.get();
-
     Optional<CartEntity> cartByUserId = cartRepository.findCartByUserId(userId);
 
     if (cartByUserId.isPresent()) {
-      Cart cart = mapper.map(cartByUserId.get(), Cart.class);
-      return Optional.of(cart);
+      return Optional.of(CartMapper.toCart(cartByUserId.get()));
     }
 
     return Optional.empty();
@@ -49,26 +41,23 @@ public class CartRepositoryServiceImpl implements CartRepositoryService {
 
   @Override
   public Cart findCartByCartId(String cartId) throws CartNotFoundException {
-    ModelMapper mapper = modelMapperProvider.get();
-
     Optional<CartEntity> cartById = cartRepository.findCartById(cartId);
 
     if (cartById.isPresent()) {
-      return mapper.map(cartById.get(), Cart.class);
+      return CartMapper.toCart(cartById.get());
     }
     throw new CartNotFoundException();
   }
 
   @Override
   public Cart addItem(Item item, String cartId, String restaurantId) throws CartNotFoundException {
-    ModelMapper mapper = modelMapperProvider.get();
     Optional<CartEntity> cartById = cartRepository.findCartById(cartId);
 
     if (cartById.isPresent()) {
       cartById.get().addItem(item);
       cartById.get().setRestaurantId(restaurantId);
       CartEntity cartEntity = cartRepository.save(cartById.get());
-      return mapper.map(cartEntity, Cart.class);
+      return CartMapper.toCart(cartEntity);
     }
 
     throw new CartNotFoundException();
@@ -77,7 +66,6 @@ public class CartRepositoryServiceImpl implements CartRepositoryService {
   @Override
   public Cart removeItem(Item item, String cartId, String restaurantId)
       throws CartNotFoundException {
-    ModelMapper mapper = modelMapperProvider.get();
     Optional<CartEntity> cartById = cartRepository.findCartById(cartId);
 
     if (cartById.isPresent()) {
@@ -86,7 +74,7 @@ public class CartRepositoryServiceImpl implements CartRepositoryService {
         cartById.get().setRestaurantId("");
       }
       CartEntity cartEntity = cartRepository.save(cartById.get());
-      return mapper.map(cartEntity, Cart.class);
+      return CartMapper.toCart(cartEntity);
     }
 
     throw new CartNotFoundException();
@@ -6,6 +6,7 @@
 
 package com.crio.qeats.repositoryservices;
 
+import com.crio.qeats.dto.Item;
 import com.crio.qeats.dto.Menu;
 import org.springframework.stereotype.Service;
 
@@ -13,10 +14,18 @@ import org.springframework.stereotype.Service;
 public interface MenuRepositoryService {
 
   /**
-   * Return the restaurant menu.
+   * Return the restaurant menu, shared with other callers and not to be modified.
    * @param restaurantId id of the restaurant
    * @return the restaurant's menu
    */
   Menu findMenu(String restaurantId);
 
+  /**
+   * Find an item of the restaurant menu, shared with other callers and not to be modified.
+   * @param itemId id of the item
+   * @param restaurantId id of the restaurant
+   * @return the item, null if the restaurant has no menu or the menu no such item
+   */
+  Item findItem(String itemId, String restaurantId);
+
 }
@@ -6,14 +6,16 @@
 
 package com.crio.qeats.repositoryservices;
 
+import com.crio.qeats.cache.MenuCache;
+import com.crio.qeats.cache.MenuCache.CachedMenu;
+import com.crio.qeats.dto.Item;
 import com.crio.qeats.dto.Menu;
+import com.crio.qeats.mappers.MenuMapper;
 import com.crio.qeats.models.MenuEntity;
 import com.crio.qeats.repositories.MenuRepository;
 
 import java.util.Optional;
 
-import javax.inject.Provider;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -24,19 +26,27 @@ public class MenuRepositoryServiceImpl implements MenuRepositoryService {
   private MenuRepository menuRepository;
 
   @Autowired
-  private Provider<ModelMapper> modelMapperProvider;
+  private MenuCache menuCache;
 
   public Menu findMenu(String restaurantId) {
-    ModelMapper modelMapper = modelMapperProvider.get();
-
-    Optional<MenuEntity> menuById = menuRepository.findMenuByRestaurantId(restaurantId);
+    CachedMenu cachedMenu = findCachedMenu(restaurantId);
+    return cachedMenu == null ? null : cachedMenu.getMenu();
+  }
 
-    Menu menu = null;
+  public Item findItem(String itemId, String restaurantId) {
+    CachedMenu cachedMenu = findCachedMenu(restaurantId);
+    return cachedMenu == null ? null : cachedMenu.getItem(itemId);
+  }
 
-    if (menuById.isPresent()) {
-      menu = modelMapper.map(menuById.get(), Menu.class);
+  // Restaurants without a menu are not cached, they are rare and looked up again each time.
+  private CachedMenu findCachedMenu(String restaurantId) {
+    CachedMenu cachedMenu = menuCache.get(restaurantId);
+    if (cachedMenu == null) {
+      Optional<MenuEntity> menuById = menuRepository.findMenuByRestaurantId(restaurantId);
+      if (menuById.isPresent()) {
+        cachedMenu = menuCache.put(MenuMapper.toMenu(menuById.get()));
+      }
     }
-
-    return menu;
+    return cachedMenu;
   }
 }
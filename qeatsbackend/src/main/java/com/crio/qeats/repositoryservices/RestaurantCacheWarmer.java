@@ -0,0 +1,195 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.repositoryservices;
+
+import ch.hsr.geohash.GeoHash;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.repositories.RestaurantRepository;
+import com.crio.qeats.utils.GeoGridIndex;
+import com.google.common.util.concurrent.RateLimiter;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the listing cache for every cell holding a restaurant, so that the first requests after
+ * a deploy or a Redis failover do not all go to the database.
+ *
+ * <p>Restaurants are loaded once into a {@link GeoGridIndex}, then cells are cached in parallel
+ * on qeats.cache.warmup.threads threads, at most qeats.cache.warmup.cells-per-second of them,
+ * for each serving radius. Runs after startup when qeats.cache.warmup.enabled is set, and on
+ * the qeats.cache.warmup.cron schedule. Progress is served by the cachewarmup actuator
+ * endpoint, and the node reports OUT_OF_SERVICE until the startup run ends.
+ */
+@Component
+@Slf4j
+public class RestaurantCacheWarmer {
+
+  enum State {
+    IDLE, RUNNING, DONE, FAILED
+  }
+
+  @Value("${qeats.cache.warmup.enabled:false}")
+  private boolean enabled;
+
+  @Value("${qeats.cache.warmup.threads:4}")
+  private int threads;
+
+  @Value("${qeats.cache.warmup.cells-per-second:200}")
+  private double cellsPerSecond;
+
+  @Value("${qeats.cache.warmup.radii-in-kms:3.0,5.0}")
+  private double[] radiiInKms;
+
+  @Autowired
+  private RestaurantRepository restaurantRepository;
+
+  // Absent when the repository service is replaced by a mock, there is nothing to warm up then.
+  @Autowired(required = false)
+  private RestaurantRepositoryServiceImpl restaurantRepositoryService;
+
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final AtomicInteger cellsTotal = new AtomicInteger();
+  private final AtomicInteger cellsWarmed = new AtomicInteger();
+  private final AtomicInteger cellsFailed = new AtomicInteger();
+  private volatile State state = State.IDLE;
+  private volatile boolean warmedUpOnce;
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUpOnStartup() {
+    if (enabled) {
+      start();
+    }
+  }
+
+  @Scheduled(cron = "${qeats.cache.warmup.cron:-}")
+  public void warmUpOnSchedule() {
+    start();
+  }
+
+  /**
+   * Start a warm-up in the background.
+   * @return false if a warm-up is already running or there is no repository service to warm
+   */
+  public boolean start() {
+    if (restaurantRepositoryService == null || !running.compareAndSet(false, true)) {
+      return false;
+    }
+    Thread thread = new Thread(() -> {
+      try {
+        warmUp();
+      } finally {
+        running.set(false);
+      }
+    }, "qeats-cache-warmup");
+    thread.setDaemon(true);
+    thread.start();
+    return true;
+  }
+
+  /**
+   * Whether the node should wait for the startup warm-up before taking traffic.
+   */
+  public boolean isWarmingUp() {
+    return enabled && restaurantRepositoryService != null && !warmedUpOnce;
+  }
+
+  public Map<String, Object> progress() {
+    Map<String, Object> progress = new LinkedHashMap<>();
+    progress.put("state", state);
+    progress.put("cellsTotal", cellsTotal.get());
+    progress.put("cellsWarmed", cellsWarmed.get());
+    progress.put("cellsFailed", cellsFailed.get());
+    progress.put("startedAt", startedAt);
+    progress.put("finishedAt", finishedAt);
+    return progress;
+  }
+
+  // Runs on the calling thread, start() runs it in the background.
+  void warmUp() {
+    state = State.RUNNING;
+    startedAt = Instant.now();
+    finishedAt = null;
+    cellsTotal.set(0);
+    cellsWarmed.set(0);
+    cellsFailed.set(0);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<RestaurantEntity> restaurantEntities = new ArrayList<>();
+      for (RestaurantEntity restaurantEntity : restaurantRepository.findAll()) {
+        if (restaurantEntity.getLatitude() != null && restaurantEntity.getLongitude() != null) {
+          restaurantEntities.add(restaurantEntity);
+        }
+      }
+      GeoGridIndex<RestaurantEntity> geoIndex = GeoGridIndex.build(restaurantEntities,
+          RestaurantEntity::getLatitude, RestaurantEntity::getLongitude);
+      Set<GeoHash> cells = new LinkedHashSet<>();
+      for (RestaurantEntity restaurantEntity : restaurantEntities) {
+        cells.add(RestaurantRepositoryServiceImpl.cacheCell(restaurantEntity.getLatitude(),
+            restaurantEntity.getLongitude()));
+      }
+      cellsTotal.set(cells.size() * radiiInKms.length);
+      log.info("Warming up the restaurant cache for {} cells", cellsTotal.get());
+
+      RateLimiter rateLimiter = RateLimiter.create(cellsPerSecond);
+      for (GeoHash cell : cells) {
+        for (double radiusInKms : radiiInKms) {
+          executor.execute(() -> {
+            rateLimiter.acquire();
+            warmUpCell(cell, radiusInKms, geoIndex);
+          });
+        }
+      }
+      executor.shutdown();
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      state = State.DONE;
+      log.info("Restaurant cache warmed up, {} cells cached, {} failed", cellsWarmed.get(),
+          cellsFailed.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      state = State.FAILED;
+    } catch (RuntimeException e) {
+      log.error("Restaurant cache warm-up failed", e);
+      state = State.FAILED;
+    } finally {
+      executor.shutdownNow();
+      finishedAt = Instant.now();
+      // A failed warm-up must not keep the node out of service forever.
+      warmedUpOnce = true;
+    }
+  }
+
+  private void warmUpCell(GeoHash cell, double radiusInKms,
+                          GeoGridIndex<RestaurantEntity> geoIndex) {
+    try {
+      restaurantRepositoryService.warmUpCell(cell, radiusInKms, geoIndex);
+      cellsWarmed.incrementAndGet();
+    } catch (IOException | RuntimeException e) {
+      cellsFailed.incrementAndGet();
+      log.debug("Could not warm up cell {}: {}", cell.toBase32(), e.getMessage());
+    }
+  }
+}
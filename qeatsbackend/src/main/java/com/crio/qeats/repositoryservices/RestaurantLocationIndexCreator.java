@@ -0,0 +1,80 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.repositoryservices;
+
+import com.crio.qeats.models.RestaurantEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepares the restaurants collection for $geoWithin radius queries.
+ */
+@Component
+@Slf4j
+public class RestaurantLocationIndexCreator {
+
+  private static final String LOCATION_FIELD = "location";
+
+  private static final int MIGRATION_BATCH_SIZE = 1000;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  /**
+   * Backfill the GeoJSON location of restaurants stored before the field existed and make sure
+   * the 2dsphere index is present. Safe to run on every startup, migrated documents are skipped.
+   */
+  public void createLocationIndex() {
+    long migrated = migrateLocations();
+    log.info("Backfilled location for {} restaurants", migrated);
+
+    mongoTemplate.indexOps(RestaurantEntity.class)
+        .ensureIndex(new GeospatialIndex(LOCATION_FIELD).typed(GeoSpatialIndexType.GEO_2DSPHERE));
+    log.info("2dsphere index on restaurants.{} is ready", LOCATION_FIELD);
+  }
+
+  private long migrateLocations() {
+    Query missingLocation = new Query(Criteria.where(LOCATION_FIELD).exists(false)
+        .and("latitude").ne(null).and("longitude").ne(null));
+    missingLocation.fields().include("latitude").include("longitude");
+
+    long migrated = 0;
+    int pending = 0;
+    BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkMode.UNORDERED,
+        RestaurantEntity.class);
+    try (CloseableIterator<RestaurantEntity> restaurants =
+             mongoTemplate.stream(missingLocation, RestaurantEntity.class)) {
+      while (restaurants.hasNext()) {
+        RestaurantEntity restaurantEntity = restaurants.next();
+        bulkOperations.updateOne(Query.query(Criteria.where("_id").is(restaurantEntity.getId())),
+            Update.update(LOCATION_FIELD, new GeoJsonPoint(restaurantEntity.getLongitude(),
+                restaurantEntity.getLatitude())));
+        migrated++;
+        if (++pending == MIGRATION_BATCH_SIZE) {
+          bulkOperations.execute();
+          bulkOperations = mongoTemplate.bulkOps(BulkMode.UNORDERED, RestaurantEntity.class);
+          pending = 0;
+        }
+      }
+    }
+    if (pending > 0) {
+      bulkOperations.execute();
+    }
+    return migrated;
+  }
+}
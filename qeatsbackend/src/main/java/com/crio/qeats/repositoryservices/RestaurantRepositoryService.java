@@ -8,7 +8,12 @@ package com.crio.qeats.repositoryservices;
 
 import com.crio.qeats.dto.Restaurant;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface RestaurantRepositoryService {
 
@@ -26,6 +31,21 @@ public interface RestaurantRepositoryService {
   List<Restaurant> findAllRestaurantsCloseBy(Double latitude, Double longitude,
       LocalTime currentTime, Double servingRadiusInKms);
 
+  /**
+   * Same restaurants as {@link #findAllRestaurantsCloseBy}, handed to the consumer one at a time
+   * instead of being collected into a list.
+   * @param latitude coordinates near which we have to search for restaurant
+   * @param longitude coordinates near which we have to search for restaurant
+   * @param currentTime current time
+   * @param servingRadiusInKms serving radius
+   * @param consumer receives every open restaurant within the specified radius
+   */
+  default void streamAllRestaurantsCloseBy(Double latitude, Double longitude,
+      LocalTime currentTime, Double servingRadiusInKms, Consumer<Restaurant> consumer) {
+    findAllRestaurantsCloseBy(latitude, longitude, currentTime, servingRadiusInKms)
+        .forEach(consumer);
+  }
+
   /**
    * Get the list of open restaurants within the specified serving radius.
    *   - Ensure the restaurant is open currently.
@@ -62,4 +82,29 @@ public interface RestaurantRepositoryService {
   List<Restaurant> findRestaurantsByItemAttributes(Double latitude, Double longitude,
       String searchString, LocalTime currentTime, Double servingRadiusInKms);
 
+  /**
+   * Get the open restaurants within the specified serving radius matching the search string in
+   * any of the four categories, each listed once in its best category: name, attributes, item
+   * name then item attributes.
+   * @param searchString Query string for restaurants
+   * @return list of restaurants, best matches first
+   */
+  default List<Restaurant> findRestaurantsBySearchQuery(Double latitude, Double longitude,
+      String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+    Map<String, Restaurant> restaurants = new LinkedHashMap<>();
+    for (List<Restaurant> category : Arrays.asList(
+        findRestaurantsByName(latitude, longitude, searchString, currentTime, servingRadiusInKms),
+        findRestaurantsByAttributes(latitude, longitude, searchString, currentTime,
+            servingRadiusInKms),
+        findRestaurantsByItemName(latitude, longitude, searchString, currentTime,
+            servingRadiusInKms),
+        findRestaurantsByItemAttributes(latitude, longitude, searchString, currentTime,
+            servingRadiusInKms))) {
+      for (Restaurant restaurant : category) {
+        restaurants.putIfAbsent(restaurant.getRestaurantId(), restaurant);
+      }
+    }
+    return new ArrayList<>(restaurants.values());
+  }
+
 }
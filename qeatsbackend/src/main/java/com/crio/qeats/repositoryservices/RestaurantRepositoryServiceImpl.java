@@ -6,44 +6,72 @@
 
 package com.crio.qeats.repositoryservices;
 
-import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
-
+import ch.hsr.geohash.BoundingBox;
 import ch.hsr.geohash.GeoHash;
+import ch.hsr.geohash.WGS84Point;
+import com.crio.qeats.cache.CacheInvalidationBus;
+import com.crio.qeats.cache.CacheMetrics;
+import com.crio.qeats.cache.ExpiringValue;
+import com.crio.qeats.cache.LockResult;
+import com.crio.qeats.cache.MenuCache;
+import com.crio.qeats.cache.MenuCache.CachedMenu;
+import com.crio.qeats.cache.RefreshAhead;
+import com.crio.qeats.cache.RestaurantCache;
+import com.crio.qeats.cache.RestaurantNearCache;
+import com.crio.qeats.cache.SingleFlight;
+import com.crio.qeats.dto.Item;
 import com.crio.qeats.dto.Restaurant;
-import com.crio.qeats.globals.GlobalConstants;
+import com.crio.qeats.mappers.RestaurantMapper;
+import com.crio.qeats.models.MenuEntity;
 import com.crio.qeats.models.RestaurantEntity;
 import com.crio.qeats.repositories.RestaurantRepository;
+import com.crio.qeats.utils.EmptyRegionIndex;
+import com.crio.qeats.utils.GeoGridIndex;
 import com.crio.qeats.utils.GeoUtils;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.crio.qeats.utils.InvertedIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import javax.annotation.PostConstruct;
-import javax.inject.Provider;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Point;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.aggregation.Aggregation;
-import org.springframework.data.mongodb.core.aggregation.AggregationResults;
-import org.springframework.data.mongodb.core.aggregation.LookupOperation;
-import org.springframework.data.mongodb.core.aggregation.MatchOperation;
+import org.springframework.data.mongodb.core.geo.Sphere;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import redis.clients.jedis.Jedis;
 
 @Service
 @Slf4j
 public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryService {
 
+  // Documents fetched per round trip when streaming restaurants.
+  private static final int STREAM_BATCH_SIZE = 500;
+
+  // Geohash precision of the cache cells, about 150 m x 150 m.
+  private static final int CACHE_CELL_PRECISION = 7;
+
+  private static final String CACHE_LOCK_PREFIX = "lock:";
+  private static final String REFRESH_LOCK_PREFIX = "refresh:";
+  private static final long CACHE_LOCK_POLL_IN_MILLIS = 50;
+
   @Autowired
   private RestaurantRepository restaurantRepository;
 
@@ -54,18 +82,131 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   private MongoTemplate mongoTemplate;
 
   @Autowired
-  private Provider<ModelMapper> modelMapperProvider;
+  private RestaurantLocationIndexCreator restaurantLocationIndexCreator;
+
+  @Autowired
+  private RestaurantCache restaurantCache;
+
+  @Autowired
+  private RestaurantNearCache restaurantNearCache;
+
+  @Autowired
+  private CacheInvalidationBus cacheInvalidationBus;
+
+  @Autowired
+  private CacheMetrics cacheMetrics;
+
+  @Autowired
+  private RefreshAhead refreshAhead;
+
+  @Autowired
+  private RestaurantSearchIndex restaurantSearchIndex;
+
+  @Autowired
+  private MenuCache menuCache;
+
+  @Value("${qeats.restaurants.lookup:SCAN}")
+  private RestaurantLookup restaurantLookup;
+
+  @Value("${qeats.cache.lock.enabled:false}")
+  private boolean cacheLockEnabled;
+
+  @Value("${qeats.cache.lock.ttl-millis:5000}")
+  private long cacheLockTtlInMillis;
+
+  // Cache misses being loaded from the database, by cache key.
+  private final SingleFlight<String, List<Restaurant>> cacheLoads = new SingleFlight<>();
+
+  @Value("${qeats.cache.empty-regions.enabled:false}")
+  private boolean emptyRegionsEnabled;
+
+  @Value("${qeats.search.timeout-millis:1000}")
+  private long searchTimeoutInMillis;
+
+  private volatile GeoGridIndex<RestaurantEntity> restaurantGeoIndex;
+  private volatile EmptyRegionIndex emptyRegionIndex;
+
+  /**
+   * Strategies for fetching the candidate restaurants around a location.
+   */
+  enum RestaurantLookup {
+    // Load the whole restaurants collection and filter every document.
+    SCAN,
+    // Only visit the cells of an in-memory grid built from the collection at startup.
+    GRID,
+    // Let Mongo return the restaurants within the radius using the 2dsphere location index.
+    GEO
+  }
 
   @PostConstruct
   private void init() {
-    GlobalConstants.initCache();
+    if (restaurantLookup == RestaurantLookup.GRID) {
+      buildRestaurantGeoIndex();
+    } else if (restaurantLookup == RestaurantLookup.GEO) {
+      restaurantLocationIndexCreator.createLocationIndex();
+    }
+    if (emptyRegionsEnabled) {
+      buildEmptyRegionIndex();
+    }
   }
 
-  private boolean isOpenNow(LocalTime time, RestaurantEntity res) {
-    LocalTime openingTime = LocalTime.parse(res.getOpensAt());
-    LocalTime closingTime = LocalTime.parse(res.getClosesAt());
+  /**
+   * Rebuild the in-memory grid from the restaurants collection, skipping restaurants without a
+   * location. Restaurants added after the last build are only visible to GRID lookups after the
+   * next rebuild, which runs every qeats.restaurants.grid.rebuild-millis.
+   */
+  @Scheduled(fixedDelayString = "${qeats.restaurants.grid.rebuild-millis:600000}",
+      initialDelayString = "${qeats.restaurants.grid.rebuild-millis:600000}")
+  public void buildRestaurantGeoIndex() {
+    if (restaurantLookup != RestaurantLookup.GRID) {
+      return;
+    }
+    List<RestaurantEntity> restaurantEntities = new ArrayList<>();
+    for (RestaurantEntity restaurantEntity : restaurantRepository.findAll()) {
+      if (restaurantEntity.getLatitude() != null && restaurantEntity.getLongitude() != null) {
+        restaurantEntities.add(restaurantEntity);
+      }
+    }
+    restaurantGeoIndex = GeoGridIndex.build(restaurantEntities, RestaurantEntity::getLatitude,
+        RestaurantEntity::getLongitude);
+    log.info("Restaurant geo index built with {} restaurants in {} cells",
+        restaurantGeoIndex.size(), restaurantGeoIndex.cellCount());
+  }
 
-    return time.isAfter(openingTime) && time.isBefore(closingTime);
+  /**
+   * Rebuild the bitmap of the regions without restaurants from the restaurants collection.
+   * Restaurants added in an empty region are only listed after the next rebuild, which runs
+   * every qeats.cache.empty-regions.rebuild-millis.
+   */
+  @Scheduled(fixedDelayString = "${qeats.cache.empty-regions.rebuild-millis:600000}",
+      initialDelayString = "${qeats.cache.empty-regions.rebuild-millis:600000}")
+  public void buildEmptyRegionIndex() {
+    if (!emptyRegionsEnabled) {
+      return;
+    }
+    List<RestaurantEntity> restaurantEntities = new ArrayList<>();
+    for (RestaurantEntity restaurantEntity : restaurantRepository.findAll()) {
+      if (restaurantEntity.getLatitude() != null && restaurantEntity.getLongitude() != null) {
+        restaurantEntities.add(restaurantEntity);
+      }
+    }
+    emptyRegionIndex = EmptyRegionIndex.build(restaurantEntities, RestaurantEntity::getLatitude,
+        RestaurantEntity::getLongitude);
+    log.info("Empty region index built with {} restaurants, {} regions occupied",
+        emptyRegionIndex.size(), emptyRegionIndex.occupiedRegionCount());
+  }
+
+  private boolean isInEmptyRegion(Double latitude, Double longitude, Double servingRadiusInKms) {
+    EmptyRegionIndex emptyRegions = emptyRegionIndex;
+    if (emptyRegions != null && emptyRegions.isEmpty(latitude, longitude, servingRadiusInKms)) {
+      cacheMetrics.recordEmptyRegionHit();
+      return true;
+    }
+    return false;
+  }
+
+  private boolean isOpenNow(LocalTime time, RestaurantEntity res) {
+    return res.isOpen(time);
   }
 
   // COMPLETED: CRIO_TASK_MODULE_NOSQL
@@ -82,7 +223,10 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
     // but using the cache if it is present and reachable.
     // Remember, you must ensure that if cache is not present, the queries are directed at the
     // database instead.
-    if (GlobalConstants.isCacheAvailable()) {
+    if (isInEmptyRegion(latitude, longitude, servingRadiusInKms)) {
+      return new ArrayList<>();
+    }
+    if (restaurantCache.isAvailable()) {
       return findAllRestaurantsCloseByFromCache(latitude, longitude, currentTime,
           servingRadiusInKms);
     } else {
@@ -93,44 +237,250 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   private List<Restaurant> findAllRestaurantsCloseFromDb(Double latitude, Double longitude,
                                                          LocalTime currentTime,
                                                          Double servingRadiusInKms) {
-    List<RestaurantEntity> restaurantEntities = restaurantRepository.findAll();
-    List<Restaurant> restaurants = new ArrayList<>();
+    List<RestaurantEntity> restaurantEntities =
+        findCandidateRestaurants(latitude, longitude, servingRadiusInKms);
     log.info("Restaurants received: {}", restaurantEntities.size());
-    for (RestaurantEntity restaurantEntity : restaurantEntities) {
-      if (isRestaurantCloseByAndOpen(restaurantEntity, currentTime, latitude, longitude,
-          servingRadiusInKms)) {
-        restaurants.add(modelMapperProvider.get().map(restaurantEntity, Restaurant.class));
+    return filterRestaurantEntities(restaurantEntities, currentTime, latitude, longitude,
+        servingRadiusInKms);
+  }
+
+  /**
+   * Streams the candidates instead of loading them, so memory stays bounded by the cursor batch
+   * whatever the number of restaurants around. Always reads from the database, the cache holds
+   * whole lists and would defeat the purpose.
+   */
+  @Override
+  public void streamAllRestaurantsCloseBy(Double latitude, Double longitude,
+                                          LocalTime currentTime, Double servingRadiusInKms,
+                                          Consumer<Restaurant> consumer) {
+    if (isInEmptyRegion(latitude, longitude, servingRadiusInKms)) {
+      return;
+    }
+    GeoGridIndex<RestaurantEntity> geoIndex = restaurantGeoIndex;
+    if (restaurantLookup == RestaurantLookup.GRID && geoIndex != null) {
+      for (RestaurantEntity restaurantEntity :
+          geoIndex.findCandidates(latitude, longitude, servingRadiusInKms)) {
+        acceptIfCloseByAndOpen(restaurantEntity, currentTime, latitude, longitude,
+            servingRadiusInKms, consumer);
       }
+      return;
     }
-    return restaurants;
+
+    Query query = new Query().cursorBatchSize(STREAM_BATCH_SIZE);
+    if (restaurantLookup == RestaurantLookup.GEO) {
+      query.addCriteria(Criteria.where("location").within(new Sphere(new Point(longitude,
+          latitude), new Distance(servingRadiusInKms / GeoUtils.EARTH_RADIUS_IN_KMS))));
+    }
+    try (CloseableIterator<RestaurantEntity> restaurantEntities =
+             mongoTemplate.stream(query, RestaurantEntity.class)) {
+      while (restaurantEntities.hasNext()) {
+        acceptIfCloseByAndOpen(restaurantEntities.next(), currentTime, latitude, longitude,
+            servingRadiusInKms, consumer);
+      }
+    }
+  }
+
+  private void acceptIfCloseByAndOpen(RestaurantEntity restaurantEntity, LocalTime currentTime,
+                                      Double latitude, Double longitude,
+                                      Double servingRadiusInKms, Consumer<Restaurant> consumer) {
+    if (isOpenNow(currentTime, restaurantEntity)
+        && GeoUtils.findDistanceInKm(latitude, longitude, restaurantEntity.getLatitude(),
+            restaurantEntity.getLongitude()) < servingRadiusInKms) {
+      consumer.accept(RestaurantMapper.toRestaurant(restaurantEntity));
+    }
+  }
+
+  private List<RestaurantEntity> findCandidateRestaurants(Double latitude, Double longitude,
+                                                          Double servingRadiusInKms) {
+    GeoGridIndex<RestaurantEntity> geoIndex = restaurantGeoIndex;
+    if (restaurantLookup == RestaurantLookup.GRID && geoIndex != null) {
+      return geoIndex.findCandidates(latitude, longitude, servingRadiusInKms);
+    }
+    if (restaurantLookup == RestaurantLookup.GEO) {
+      // $centerSphere takes the radius in radians, use the same earth radius as GeoUtils.
+      return restaurantRepository.findByLocationWithin(new Sphere(new Point(longitude, latitude),
+          new Distance(servingRadiusInKms / GeoUtils.EARTH_RADIUS_IN_KMS)));
+    }
+    return restaurantRepository.findAll();
   }
 
+  /**
+   * Cache key of the candidates around a location: its geohash cell and the serving radius.
+   */
+  static String cacheKey(Double latitude, Double longitude, Double servingRadiusInKms) {
+    return cacheKey(cacheCell(latitude, longitude), servingRadiusInKms);
+  }
+
+  static String cacheKey(GeoHash cell, Double servingRadiusInKms) {
+    return cell.toBase32() + ':' + servingRadiusInKms;
+  }
+
+  static GeoHash cacheCell(double latitude, double longitude) {
+    return GeoHash.withCharacterPrecision(latitude, longitude, CACHE_CELL_PRECISION);
+  }
+
+  /**
+   * The cache holds, per cell and serving radius, every restaurant that can be within the radius
+   * of some point of the cell, whatever their opening hours. Opening hours and the exact
+   * distance are checked on every read, so one entry serves all day and all users of the cell.
+   */
   private List<Restaurant> findAllRestaurantsCloseByFromCache(Double latitude, Double longitude,
                                                               LocalTime currentTime,
                                                               Double servingRadiusInKms) {
-    GeoHash geoHash = GeoHash.withCharacterPrecision(latitude, longitude, 7);
-    String key = geoHash.toBase32();
-    Jedis jedis = GlobalConstants.getJedisPool().getResource();
+    GeoHash cell = cacheCell(latitude, longitude);
+    String key = cacheKey(cell, servingRadiusInKms);
+
+    List<Restaurant> candidates = restaurantNearCache.get(key);
+    if (candidates == null) {
+      ExpiringValue<List<Restaurant>> cached = restaurantCache.getWithTimeToLive(key);
+      if (cached != null) {
+        candidates = cached.getValue();
+        cacheMetrics.recordHit(CacheMetrics.L2);
+        restaurantNearCache.put(key, candidates);
+        // Negative entries are left to expire, they are cheap to reload.
+        if (!candidates.isEmpty()) {
+          refreshAhead.refreshIfExpiring(key, cached.getTimeToLiveInMillis(),
+              () -> refreshCandidates(key, cell, servingRadiusInKms));
+        }
+      } else {
+        cacheMetrics.recordMiss(CacheMetrics.L2);
+        // Concurrent misses of a key share one load.
+        candidates = cacheLoads.load(key, () -> loadCandidates(key, cell, servingRadiusInKms));
+      }
+    }
 
     List<Restaurant> restaurants = new ArrayList<>();
-    if (jedis.get(key) == null) {
-      restaurants = findAllRestaurantsCloseFromDb(latitude, longitude,
-          currentTime, servingRadiusInKms);
-      try {
-        jedis.set(key, objectMapper.writeValueAsString(restaurants));
-      } catch (JsonProcessingException e) {
-        e.printStackTrace();
+    for (Restaurant candidate : candidates) {
+      if (candidate.isOpen(currentTime)
+          && GeoUtils.findDistanceInKm(latitude, longitude, candidate.getLatitude(),
+              candidate.getLongitude()) < servingRadiusInKms) {
+        restaurants.add(RestaurantMapper.copy(candidate));
       }
+    }
+    return restaurants;
+  }
 
-    } else {
+  /**
+   * Load the candidates of a missed key from the database and cache them. With
+   * qeats.cache.lock.enabled, a node that finds the key locked by another node waits for that
+   * node to fill the cache, and only queries the database itself when the lock expires first or
+   * the cache becomes unavailable. A node that cannot reach the cache to take the lock queries
+   * the database at once.
+   */
+  private List<Restaurant> loadCandidates(String key, GeoHash cell, Double servingRadiusInKms) {
+    // The previous load of the key may have finished between our miss and this load.
+    List<Restaurant> candidates = restaurantCache.get(key);
+    if (candidates != null) {
+      return candidates;
+    }
+
+    String lockKey = CACHE_LOCK_PREFIX + key;
+    String token = UUID.randomUUID().toString();
+    boolean locked = false;
+    if (cacheLockEnabled) {
+      LockResult lock = restaurantCache.tryLock(lockKey, token, cacheLockTtlInMillis);
+      locked = lock == LockResult.ACQUIRED;
+      if (lock == LockResult.HELD) {
+        candidates = awaitCachedRestaurants(key);
+        if (candidates != null) {
+          restaurantNearCache.put(key, candidates);
+          return candidates;
+        }
+      }
+    }
+
+    try {
+      return storeCandidates(key, findCellCandidates(cell, servingRadiusInKms, null));
+    } finally {
+      if (locked) {
+        restaurantCache.unlock(lockKey, token);
+      }
+    }
+  }
+
+  /**
+   * Reload the candidates of a cached key about to expire, on a refresh-ahead thread. When
+   * several nodes see the key expiring, the one taking the refresh lock reloads it.
+   */
+  private void refreshCandidates(String key, GeoHash cell, Double servingRadiusInKms) {
+    String lockKey = REFRESH_LOCK_PREFIX + key;
+    String token = UUID.randomUUID().toString();
+    if (restaurantCache.tryLock(lockKey, token, cacheLockTtlInMillis) != LockResult.ACQUIRED) {
+      return;
+    }
+    try {
+      storeCandidates(key, findCellCandidates(cell, servingRadiusInKms, null));
+    } finally {
+      restaurantCache.unlock(lockKey, token);
+    }
+  }
+
+  private List<Restaurant> storeCandidates(String key, List<Restaurant> candidates) {
+    try {
+      restaurantCache.put(key, candidates);
+      cacheInvalidationBus.publish(key);
+    } catch (IOException e) {
+      log.warn("Could not cache restaurants of {}: {}", key, e.getMessage());
+    }
+    restaurantNearCache.put(key, candidates);
+    return candidates;
+  }
+
+  /**
+   * Cache the candidates of a cell ahead of the first request for it. Other nodes are not told,
+   * the warm-up rewrites many cells and their near caches expire soon enough.
+   *
+   * @param geoIndex index of every restaurant to find candidates in, instead of querying the
+   *     database once per cell
+   */
+  void warmUpCell(GeoHash cell, Double servingRadiusInKms,
+                  GeoGridIndex<RestaurantEntity> geoIndex) throws IOException {
+    restaurantCache.put(cacheKey(cell, servingRadiusInKms),
+        findCellCandidates(cell, servingRadiusInKms, geoIndex));
+  }
+
+  /**
+   * Find the restaurants within the radius of any point of the cell.
+   *
+   * @param geoIndex index to find candidates in, null to use the configured lookup
+   */
+  private List<Restaurant> findCellCandidates(GeoHash cell, Double servingRadiusInKms,
+                                              GeoGridIndex<RestaurantEntity> geoIndex) {
+    // A restaurant within the radius of a point of the cell is within the radius plus the
+    // half diagonal of the cell from its center.
+    WGS84Point center = cell.getBoundingBoxCenterPoint();
+    BoundingBox box = cell.getBoundingBox();
+    double halfDiagonalInKms = Math.max(
+        GeoUtils.findDistanceInKm(center.getLatitude(), center.getLongitude(),
+            box.getMaxLat(), box.getMaxLon()),
+        GeoUtils.findDistanceInKm(center.getLatitude(), center.getLongitude(),
+            box.getMinLat(), box.getMaxLon()));
+    double candidateRadiusInKms = servingRadiusInKms + halfDiagonalInKms;
+    List<RestaurantEntity> restaurantEntities = geoIndex != null
+        ? geoIndex.findCandidates(center.getLatitude(), center.getLongitude(),
+            candidateRadiusInKms)
+        : findCandidateRestaurants(center.getLatitude(), center.getLongitude(),
+            candidateRadiusInKms);
+    return filterCloseBy(restaurantEntities, center.getLatitude(), center.getLongitude(),
+        candidateRadiusInKms);
+  }
+
+  // Polls until the lock expires, giving up as soon as the cache is unavailable.
+  private List<Restaurant> awaitCachedRestaurants(String key) {
+    long deadline = System.currentTimeMillis() + cacheLockTtlInMillis;
+    while (System.currentTimeMillis() < deadline && restaurantCache.isAvailable()) {
       try {
-        restaurants = objectMapper.readValue(jedis.get(key), new TypeReference<List<Restaurant>>() {
-        });
-      } catch (IOException e) {
-        e.printStackTrace();
+        Thread.sleep(CACHE_LOCK_POLL_IN_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+      List<Restaurant> restaurants = restaurantCache.get(key);
+      if (restaurants != null) {
+        return restaurants;
       }
     }
-    return restaurants;
+    return null;
   }
 
   // COMPLETED: CRIO_TASK_MODULE_RESTAURANTSEARCH
@@ -140,26 +490,25 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   public List<Restaurant> findRestaurantsByName(Double latitude, Double longitude,
                                                 String searchString, LocalTime currentTime,
                                                 Double servingRadiusInKms) {
-    final String regexExact = String.format("^%s$", searchString);
-    final String regexAll = String.format(".*%s.*", searchString);
+    List<RestaurantEntity> indexed = restaurantSearchIndex.findByName(searchString);
+    if (indexed != null) {
+      return filterRestaurantEntities(indexed, currentTime, latitude, longitude,
+          servingRadiusInKms);
+    }
+    final String regexExact = String.format("^%s$", Pattern.quote(searchString));
+    final String regexAll = Pattern.quote(searchString);
 
     LinkedHashSet<RestaurantEntity> restaurantEntityLinkedHashSet = new LinkedHashSet<>();
-    Query queryExact = new Query(Criteria.where("name").regex(regexExact, "i"));
-    Query queryRestMatches = new Query(Criteria.where("name").regex(regexAll, "i"));
+    Query queryExact = searchQuery(Criteria.where("name").regex(regexExact, "i"));
+    Query queryRestMatches = searchQuery(Criteria.where("name").regex(regexAll, "i"));
 
 
     restaurantEntityLinkedHashSet.addAll(mongoTemplate.find(queryExact, RestaurantEntity.class));
     restaurantEntityLinkedHashSet.addAll(mongoTemplate.find(queryRestMatches,
         RestaurantEntity.class));
 
-    List<Restaurant> restaurants = new ArrayList<>();
-    restaurantEntityLinkedHashSet.forEach(restaurantEntity -> {
-      if (isRestaurantCloseByAndOpen(restaurantEntity, currentTime, latitude, longitude,
-          servingRadiusInKms)) {
-        restaurants.add(modelMapperProvider.get().map(restaurantEntity, Restaurant.class));
-      }
-    });
-    return restaurants;
+    return filterRestaurantEntities(restaurantEntityLinkedHashSet, currentTime, latitude,
+        longitude, servingRadiusInKms);
   }
 
   // COMPLETES: CRIO_TASK_MODULE_RESTAURANTSEARCH
@@ -169,9 +518,13 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   public List<Restaurant> findRestaurantsByAttributes(
       Double latitude, Double longitude,
       String searchString, LocalTime currentTime, Double servingRadiusInKms) {
-    final String regexAll = String.format(".*%s.*", searchString);
-    Query queryRestMatches = new Query();
-    queryRestMatches.addCriteria(Criteria.where("attributes").in(regexAll, "i"));
+    List<RestaurantEntity> indexed = restaurantSearchIndex.findByAttribute(searchString);
+    if (indexed != null) {
+      return filterRestaurantEntities(indexed, currentTime, latitude, longitude,
+          servingRadiusInKms);
+    }
+    final String regexAll = Pattern.quote(searchString);
+    Query queryRestMatches = searchQuery(Criteria.where("attributes").regex(regexAll, "i"));
     List<RestaurantEntity> restaurantEntities =
         new ArrayList<>(mongoTemplate.find(queryRestMatches, RestaurantEntity.class));
 
@@ -187,9 +540,18 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   public List<Restaurant> findRestaurantsByItemName(
       Double latitude, Double longitude,
       String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+    List<RestaurantEntity> indexed = restaurantSearchIndex.findByItemName(searchString);
+    if (indexed != null) {
+      return filterRestaurantEntities(indexed, currentTime, latitude, longitude,
+          servingRadiusInKms);
+    }
 
-
-    return new ArrayList<>();
+    LinkedHashSet<String> restaurantIds = new LinkedHashSet<>();
+    restaurantIds.addAll(findRestaurantIdsServing("items.name",
+        String.format("^%s$", Pattern.quote(searchString))));
+    restaurantIds.addAll(findRestaurantIdsServing("items.name", Pattern.quote(searchString)));
+    return filterRestaurantEntities(findRestaurantEntities(restaurantIds), currentTime, latitude,
+        longitude, servingRadiusInKms);
   }
 
   // COMPLETED: CRIO_TASK_MODULE_RESTAURANTSEARCH
@@ -200,22 +562,164 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
                                                           String searchString,
                                                           LocalTime currentTime,
                                                           Double servingRadiusInKms) {
-    // TODO: 6/14/19 Fix the ~15sec overhead of mongodb query here
-    //    final String regexAll = String.format(".*%s.*", searchString);
-    //    LookupOperation lookupOperation = LookupOperation.newLookup()
-    //        .from("menus")
-    //        .localField("restaurantId")
-    //        .foreignField("restaurantId")
-    //        .as("menu");
-    //
-    //    MatchOperation matchOperation =
-    //        match(new Criteria("menu.item.attributes").in(regexAll));
-    //
-    //    Aggregation aggregation = Aggregation.newAggregation(lookupOperation, matchOperation);
-    //    AggregationResults<RestaurantEntity> entityAggregationResults =
-    //        mongoTemplate.aggregate(aggregation, "restaurants", RestaurantEntity.class);
-
-    return new ArrayList<>();
+    List<RestaurantEntity> indexed = restaurantSearchIndex.findByItemAttribute(searchString);
+    if (indexed != null) {
+      return filterRestaurantEntities(indexed, currentTime, latitude, longitude,
+          servingRadiusInKms);
+    }
+    Collection<String> restaurantIds =
+        findRestaurantIdsServing("items.attributes", Pattern.quote(searchString));
+    return filterRestaurantEntities(findRestaurantEntities(restaurantIds), currentTime, latitude,
+        longitude, servingRadiusInKms);
+  }
+
+  // Item searches read the ids of the matching menus, then their restaurants, in two indexed
+  // queries rather than a $lookup from every restaurant to its menu.
+  private Collection<String> findRestaurantIdsServing(String field, String regex) {
+    Query query = searchQuery(Criteria.where(field).regex(regex, "i"));
+    query.fields().include("restaurantId");
+    LinkedHashSet<String> restaurantIds = new LinkedHashSet<>();
+    for (MenuEntity menuEntity : mongoTemplate.find(query, MenuEntity.class)) {
+      restaurantIds.add(menuEntity.getRestaurantId());
+    }
+    return restaurantIds;
+  }
+
+  // Restaurants with the given ids, in the order of the ids.
+  private List<RestaurantEntity> findRestaurantEntities(Collection<String> restaurantIds) {
+    if (restaurantIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Map<String, RestaurantEntity> restaurantEntities = new HashMap<>();
+    for (RestaurantEntity restaurantEntity : mongoTemplate.find(
+        searchQuery(Criteria.where("restaurantId").in(restaurantIds)), RestaurantEntity.class)) {
+      restaurantEntities.putIfAbsent(restaurantEntity.getRestaurantId(), restaurantEntity);
+    }
+    List<RestaurantEntity> ordered = new ArrayList<>(restaurantEntities.size());
+    for (String restaurantId : restaurantIds) {
+      RestaurantEntity restaurantEntity = restaurantEntities.get(restaurantId);
+      if (restaurantEntity != null) {
+        ordered.add(restaurantEntity);
+      }
+    }
+    return ordered;
+  }
+
+  // Queries of a search run at most as long as the search is waited for. MongoDB stops them
+  // when a search times out, instead of letting them hold a search thread to the end.
+  private Query searchQuery(Criteria criteria) {
+    return new Query(criteria).maxTimeMsec(searchTimeoutInMillis);
+  }
+
+  /**
+   * Categories of a search match, best first.
+   */
+  private enum SearchRank {
+    EXACT_NAME, PARTIAL_NAME, ATTRIBUTE, EXACT_ITEM_NAME, PARTIAL_ITEM_NAME, ITEM_ATTRIBUTE
+  }
+
+  /**
+   * Ranks the open restaurants within the radius in one pass instead of one query per category.
+   * Candidates come from the nearby listing, usually cached for the cell, and only the menus of
+   * those not matched by name or attribute are read, from the menu cache or in a single query.
+   * Matching ignores case and accents, and the query is taken literally.
+   */
+  @Override
+  public List<Restaurant> findRestaurantsBySearchQuery(Double latitude, Double longitude,
+      String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+    String query = InvertedIndex.normalize(searchString);
+    if (query.isEmpty()) {
+      return new ArrayList<>();
+    }
+    List<List<Restaurant>> ranked = new ArrayList<>();
+    for (int i = 0; i < SearchRank.values().length; i++) {
+      ranked.add(new ArrayList<>());
+    }
+
+    List<Restaurant> unmatched = new ArrayList<>();
+    for (Restaurant restaurant : findAllRestaurantsCloseBy(latitude, longitude, currentTime,
+        servingRadiusInKms)) {
+      String name = normalize(restaurant.getName());
+      if (name.equals(query)) {
+        ranked.get(SearchRank.EXACT_NAME.ordinal()).add(restaurant);
+      } else if (name.contains(query)) {
+        ranked.get(SearchRank.PARTIAL_NAME.ordinal()).add(restaurant);
+      } else if (anyContains(restaurant.getAttributes(), query)) {
+        ranked.get(SearchRank.ATTRIBUTE.ordinal()).add(restaurant);
+      } else {
+        unmatched.add(restaurant);
+      }
+    }
+
+    if (!unmatched.isEmpty()) {
+      Map<String, List<Item>> menuItems = findMenuItems(unmatched);
+      for (Restaurant restaurant : unmatched) {
+        SearchRank rank = rankItems(menuItems.get(restaurant.getRestaurantId()), query);
+        if (rank != null) {
+          ranked.get(rank.ordinal()).add(restaurant);
+        }
+      }
+    }
+
+    List<Restaurant> restaurants = new ArrayList<>();
+    ranked.forEach(restaurants::addAll);
+    return restaurants;
+  }
+
+  private static SearchRank rankItems(List<Item> items, String query) {
+    if (items == null) {
+      return null;
+    }
+    SearchRank best = null;
+    for (Item item : items) {
+      String name = normalize(item.getName());
+      if (name.equals(query)) {
+        return SearchRank.EXACT_ITEM_NAME;
+      } else if (name.contains(query)) {
+        best = SearchRank.PARTIAL_ITEM_NAME;
+      } else if (best == null && anyContains(item.getAttributes(), query)) {
+        best = SearchRank.ITEM_ATTRIBUTE;
+      }
+    }
+    return best;
+  }
+
+  private static boolean anyContains(List<String> texts, String query) {
+    if (texts != null) {
+      for (String text : texts) {
+        if (normalize(text).contains(query)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static String normalize(String text) {
+    return text == null ? "" : InvertedIndex.normalize(text);
+  }
+
+  // Items on the menus of the restaurants, by restaurant id. Menus missing from the menu cache
+  // are read in one query, with only the fields searched.
+  private Map<String, List<Item>> findMenuItems(List<Restaurant> restaurants) {
+    Map<String, List<Item>> menuItems = new HashMap<>();
+    List<String> uncachedRestaurantIds = new ArrayList<>();
+    for (Restaurant restaurant : restaurants) {
+      CachedMenu cachedMenu = menuCache.get(restaurant.getRestaurantId());
+      if (cachedMenu != null) {
+        menuItems.put(restaurant.getRestaurantId(), cachedMenu.getMenu().getItems());
+      } else {
+        uncachedRestaurantIds.add(restaurant.getRestaurantId());
+      }
+    }
+    if (!uncachedRestaurantIds.isEmpty()) {
+      Query query = searchQuery(Criteria.where("restaurantId").in(uncachedRestaurantIds));
+      query.fields().include("restaurantId").include("items.name").include("items.attributes");
+      for (MenuEntity menuEntity : mongoTemplate.find(query, MenuEntity.class)) {
+        menuItems.putIfAbsent(menuEntity.getRestaurantId(), menuEntity.getItems());
+      }
+    }
+    return menuItems;
   }
 
   // COMPLETED: CRIO_TASK_MODULE_NOSQL
@@ -224,33 +728,47 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   // NOTE: How far exactly is "nearby"?
 
   /**
-   * Utility method to check if a restaurant is within the serving radius at a given time.
+   * Utility method to keep the restaurants within the serving radius which are open at a given
+   * time.
    *
-   * @return boolean True if restaurant falls within serving radius and is open, false otherwise
+   * @return restaurants that fall within serving radius and are open, in the order given
    */
-  private boolean isRestaurantCloseByAndOpen(RestaurantEntity restaurantEntity,
-                                             LocalTime currentTime, Double latitude,
-                                             Double longitude, Double servingRadiusInKms) {
-    if (isOpenNow(currentTime, restaurantEntity)) {
-      return GeoUtils.findDistanceInKm(latitude, longitude,
-          restaurantEntity.getLatitude(), restaurantEntity.getLongitude())
-          < servingRadiusInKms;
+  private List<Restaurant> filterRestaurantEntities(
+      Collection<RestaurantEntity> restaurantEntities, LocalTime currentTime, Double latitude,
+      Double longitude, Double servingRadiusInKms) {
+    List<RestaurantEntity> openRestaurants = new ArrayList<>(restaurantEntities.size());
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      if (isOpenNow(currentTime, restaurantEntity)) {
+        openRestaurants.add(restaurantEntity);
+      }
     }
-
-    return false;
+    return filterCloseBy(openRestaurants, latitude, longitude, servingRadiusInKms);
   }
 
+  /**
+   * Keep the restaurants within the serving radius. Distances are computed in one batch over
+   * primitive coordinate arrays.
+   *
+   * @return restaurants that fall within serving radius, in the order given
+   */
+  private List<Restaurant> filterCloseBy(List<RestaurantEntity> restaurantEntities,
+                                         double latitude, double longitude,
+                                         double servingRadiusInKms) {
+    int count = restaurantEntities.size();
+    double[] latitudes = new double[count];
+    double[] longitudes = new double[count];
+    for (int i = 0; i < count; i++) {
+      latitudes[i] = restaurantEntities.get(i).getLatitude();
+      longitudes[i] = restaurantEntities.get(i).getLongitude();
+    }
+    int[] matches = new int[count];
+    int matched = GeoUtils.findWithinRadius(latitude, longitude, latitudes, longitudes, count,
+        servingRadiusInKms, matches);
 
-  private List<Restaurant> filterRestaurantEntities(List<RestaurantEntity> restaurantEntities,
-                                                    LocalTime currentTime, Double latitude,
-                                                    Double longitude, Double servingRadiusInKms) {
-    List<Restaurant> restaurants = new ArrayList<>();
-    restaurantEntities.forEach(restaurantEntity -> {
-      if (isRestaurantCloseByAndOpen(restaurantEntity, currentTime, latitude, longitude,
-          servingRadiusInKms)) {
-        restaurants.add(modelMapperProvider.get().map(restaurantEntity, Restaurant.class));
-      }
-    });
+    List<Restaurant> restaurants = new ArrayList<>(matched);
+    for (int i = 0; i < matched; i++) {
+      restaurants.add(RestaurantMapper.toRestaurant(restaurantEntities.get(matches[i])));
+    }
     return restaurants;
   }
 }
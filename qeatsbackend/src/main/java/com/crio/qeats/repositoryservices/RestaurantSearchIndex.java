@@ -0,0 +1,211 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.repositoryservices;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.models.MenuEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.repositories.MenuRepository;
+import com.crio.qeats.repositories.RestaurantRepository;
+import com.crio.qeats.utils.InvertedIndex;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory {@link InvertedIndex} over the names and attributes of the restaurants and of the
+ * items on their menus, answering the four search categories without querying Mongo.
+ *
+ * <p>Built from the restaurants and menus collections at startup when
+ * qeats.search.index.enabled is set, and rebuilt every qeats.search.index.rebuild-millis.
+ * Restaurants and menus changed in between are only found as of the last build. Matches ignore
+ * case and accents, and the query is taken literally rather than as a regular expression.
+ */
+@Component
+@Slf4j
+public class RestaurantSearchIndex {
+
+  @Value("${qeats.search.index.enabled:false}")
+  private boolean enabled;
+
+  @Autowired
+  private RestaurantRepository restaurantRepository;
+
+  @Autowired
+  private MenuRepository menuRepository;
+
+  private volatile Snapshot snapshot;
+
+  @PostConstruct
+  private void init() {
+    if (enabled) {
+      build();
+    }
+  }
+
+  /**
+   * Rebuild the index from the restaurants and menus collections.
+   */
+  @Scheduled(fixedDelayString = "${qeats.search.index.rebuild-millis:600000}",
+      initialDelayString = "${qeats.search.index.rebuild-millis:600000}")
+  public void build() {
+    if (!enabled) {
+      return;
+    }
+    snapshot = Snapshot.build(restaurantRepository.findAll(), menuRepository.findAll());
+    log.info("Restaurant search index built with {} restaurants, {} texts and {} n-grams",
+        snapshot.restaurants.length, snapshot.textCount(), snapshot.gramCount());
+  }
+
+  public boolean isReady() {
+    return snapshot != null;
+  }
+
+  /**
+   * Restaurants named exactly as the query, then those whose name contains it.
+   * @return matching restaurants, null if the index is not built
+   */
+  public List<RestaurantEntity> findByName(String query) {
+    Snapshot current = snapshot;
+    return current == null ? null : current.findExactFirst(current.names, query);
+  }
+
+  /**
+   * Restaurants with an attribute, such as a cuisine, containing the query.
+   * @return matching restaurants, null if the index is not built
+   */
+  public List<RestaurantEntity> findByAttribute(String query) {
+    Snapshot current = snapshot;
+    return current == null ? null : current.findContaining(current.attributes, query);
+  }
+
+  /**
+   * Restaurants serving an item named exactly as the query, then those serving an item whose
+   * name contains it.
+   * @return matching restaurants, null if the index is not built
+   */
+  public List<RestaurantEntity> findByItemName(String query) {
+    Snapshot current = snapshot;
+    return current == null ? null : current.findExactFirst(current.itemNames, query);
+  }
+
+  /**
+   * Restaurants serving an item with an attribute containing the query.
+   * @return matching restaurants, null if the index is not built
+   */
+  public List<RestaurantEntity> findByItemAttribute(String query) {
+    Snapshot current = snapshot;
+    return current == null ? null : current.findContaining(current.itemAttributes, query);
+  }
+
+  /**
+   * Indexes built together, restaurants being numbered in the order of the collection.
+   */
+  static final class Snapshot {
+
+    private final RestaurantEntity[] restaurants;
+    private final InvertedIndex names;
+    private final InvertedIndex attributes;
+    private final InvertedIndex itemNames;
+    private final InvertedIndex itemAttributes;
+
+    private Snapshot(RestaurantEntity[] restaurants, InvertedIndex names,
+        InvertedIndex attributes, InvertedIndex itemNames, InvertedIndex itemAttributes) {
+      this.restaurants = restaurants;
+      this.names = names;
+      this.attributes = attributes;
+      this.itemNames = itemNames;
+      this.itemAttributes = itemAttributes;
+    }
+
+    static Snapshot build(List<RestaurantEntity> restaurantEntities, List<MenuEntity> menus) {
+      RestaurantEntity[] restaurants = restaurantEntities.toArray(new RestaurantEntity[0]);
+      InvertedIndex.Builder names = InvertedIndex.builder();
+      InvertedIndex.Builder attributes = InvertedIndex.builder();
+      Map<String, Integer> numbers = new HashMap<>(restaurants.length * 2);
+      for (int number = 0; number < restaurants.length; number++) {
+        names.add(number, restaurants[number].getName());
+        if (restaurants[number].getAttributes() != null) {
+          for (String attribute : restaurants[number].getAttributes()) {
+            attributes.add(number, attribute);
+          }
+        }
+        numbers.putIfAbsent(restaurants[number].getRestaurantId(), number);
+      }
+
+      // Menus come in any order, the builders want them by restaurant number.
+      MenuEntity[] menusByNumber = new MenuEntity[restaurants.length];
+      for (MenuEntity menu : menus) {
+        Integer number = numbers.get(menu.getRestaurantId());
+        if (number != null) {
+          menusByNumber[number] = menu;
+        }
+      }
+      InvertedIndex.Builder itemNames = InvertedIndex.builder();
+      InvertedIndex.Builder itemAttributes = InvertedIndex.builder();
+      for (int number = 0; number < menusByNumber.length; number++) {
+        if (menusByNumber[number] == null) {
+          continue;
+        }
+        for (Item item : menusByNumber[number].getItems()) {
+          itemNames.add(number, item.getName());
+          if (item.getAttributes() != null) {
+            for (String attribute : item.getAttributes()) {
+              itemAttributes.add(number, attribute);
+            }
+          }
+        }
+      }
+      return new Snapshot(restaurants, names.build(), attributes.build(), itemNames.build(),
+          itemAttributes.build());
+    }
+
+    List<RestaurantEntity> findExactFirst(InvertedIndex index, String query) {
+      int[] exact = index.findExact(query);
+      int[] containing = index.findContaining(query);
+      BitSet found = new BitSet(restaurants.length);
+      List<RestaurantEntity> matches = new ArrayList<>(containing.length);
+      for (int number : exact) {
+        found.set(number);
+        matches.add(restaurants[number]);
+      }
+      for (int number : containing) {
+        if (!found.get(number)) {
+          matches.add(restaurants[number]);
+        }
+      }
+      return matches;
+    }
+
+    List<RestaurantEntity> findContaining(InvertedIndex index, String query) {
+      int[] containing = index.findContaining(query);
+      List<RestaurantEntity> matches = new ArrayList<>(containing.length);
+      for (int number : containing) {
+        matches.add(restaurants[number]);
+      }
+      return matches;
+    }
+
+    int textCount() {
+      return names.textCount() + attributes.textCount() + itemNames.textCount()
+          + itemAttributes.textCount();
+    }
+
+    int gramCount() {
+      return names.gramCount() + attributes.gramCount() + itemNames.gramCount()
+          + itemAttributes.gramCount();
+    }
+  }
+}
@@ -7,7 +7,6 @@
 package com.crio.qeats.services;
 
 import com.crio.qeats.dto.Item;
-import com.crio.qeats.dto.Menu;
 import com.crio.qeats.exceptions.ItemNotFoundInRestaurantMenuException;
 import com.crio.qeats.exchanges.GetMenuResponse;
 import com.crio.qeats.repositoryservices.MenuRepositoryService;
@@ -28,14 +27,10 @@ public class MenuServiceImpl implements MenuService {
   @Override
   public Item findItem(String itemId, String restaurantId)
       throws ItemNotFoundInRestaurantMenuException {
-    Menu menu = menuRepositoryService.findMenu(restaurantId);
-
-    if (menu != null) {
-      for (Item item : menu.getItems()) {
-        if (itemId.equals(item.getItemId())) {
-          return item;
-        }
-      }
+    Item item = menuRepositoryService.findItem(itemId, restaurantId);
+
+    if (item != null) {
+      return item;
     }
 
     throw new ItemNotFoundInRestaurantMenuException("No item found matching the itemId " + itemId);
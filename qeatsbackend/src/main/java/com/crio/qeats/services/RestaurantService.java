@@ -6,9 +6,12 @@
 
 package com.crio.qeats.services;
 
+import com.crio.qeats.dto.Restaurant;
 import com.crio.qeats.exchanges.GetRestaurantsRequest;
 import com.crio.qeats.exchanges.GetRestaurantsResponse;
 import java.time.LocalTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface RestaurantService {
 
@@ -26,6 +29,16 @@ public interface RestaurantService {
   GetRestaurantsResponse findAllRestaurantsCloseBy(
       GetRestaurantsRequest getRestaurantsRequest, LocalTime currentTime);
 
+  /**
+   * Streaming variant of {@link #findAllRestaurantsCloseBy}. Restaurants are handed to the
+   * consumer as they are found, in the same order and with the same content as the list.
+   * @param getRestaurantsRequest valid lat/long
+   * @param currentTime current time.
+   * @param consumer receives every open restaurant within the serving radius
+   */
+  void streamAllRestaurantsCloseBy(GetRestaurantsRequest getRestaurantsRequest,
+      LocalTime currentTime, Consumer<Restaurant> consumer);
+
   /**
    * Get the restaurants by processing the query.
    * -Ordering rules
@@ -52,12 +65,12 @@ public interface RestaurantService {
 
   /**
    * Identical input and output to @link{findRestaurantsBySearchQuery} but
-   * use a multi-threaded implementation.
+   * non-blocking: the search runs on the search executor and the caller's thread returns at once.
    * @param getRestaurantsRequest valid lat/long with searchFor string
    * @param currentTime current time
-   * @return GetRestaurantsResponse object containing a list of open restaurants or an
-   *     empty list if none fits the criteria.
+   * @return future of the GetRestaurantsResponse object containing a list of open restaurants or
+   *     an empty list if none fits the criteria.
    */
-  GetRestaurantsResponse findRestaurantsBySearchQueryMt(
+  CompletableFuture<GetRestaurantsResponse> findRestaurantsBySearchQueryMt(
       GetRestaurantsRequest getRestaurantsRequest, LocalTime currentTime);
 }
@@ -10,15 +10,30 @@ import com.crio.qeats.dto.Restaurant;
 import com.crio.qeats.exchanges.GetRestaurantsRequest;
 import com.crio.qeats.exchanges.GetRestaurantsResponse;
 import com.crio.qeats.repositoryservices.RestaurantRepositoryService;
+import com.crio.qeats.utils.DistanceCursor;
+import com.crio.qeats.utils.GeoUtils;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -27,15 +42,33 @@ public class RestaurantServiceImpl implements RestaurantService {
 
   private final Double peakHoursServingRadiusInKms = 3.0;
   private final Double normalHoursServingRadiusInKms = 5.0;
+  private static final Comparator<Restaurant> BY_DISTANCE = (a, b) ->
+      DistanceCursor.compare(a.getDistanceInKms(), a.getRestaurantId(), b.getDistanceInKms(),
+          b.getRestaurantId());
+
   @Autowired
   private RestaurantRepositoryService restaurantRepositoryService;
 
+  @Autowired
+  @Qualifier("searchExecutor")
+  private Executor searchExecutor;
+
+  @Value("${qeats.search.timeout-millis:1000}")
+  private long searchTimeoutInMillis;
+
+  @Value("${qeats.search.combined:false}")
+  private boolean combinedSearch;
+
 
   // COMPLETED: CRIO_TASK_MODULE_RESTAURANTSAPI - Implement findAllRestaurantsCloseby.
   // Check RestaurantService.java file for the interface contract.
   @Override
   public GetRestaurantsResponse findAllRestaurantsCloseBy(
       GetRestaurantsRequest getRestaurantsRequest, LocalTime currentTime) {
+    if (getRestaurantsRequest.isPaginated()) {
+      return findNearestRestaurants(getRestaurantsRequest, currentTime);
+    }
+
     double currentLat = getRestaurantsRequest.getLatitude();
     double currentLong = getRestaurantsRequest.getLongitude();
 
@@ -54,6 +87,74 @@ public class RestaurantServiceImpl implements RestaurantService {
     return new GetRestaurantsResponse(restaurants);
   }
 
+  @Override
+  public void streamAllRestaurantsCloseBy(GetRestaurantsRequest getRestaurantsRequest,
+      LocalTime currentTime, Consumer<Restaurant> consumer) {
+    Double servingRange = normalHoursServingRadiusInKms;
+    if (isPeekHour(currentTime)) {
+      servingRange = peakHoursServingRadiusInKms;
+    }
+
+    restaurantRepositoryService.streamAllRestaurantsCloseBy(getRestaurantsRequest.getLatitude(),
+        getRestaurantsRequest.getLongitude(), currentTime, servingRange, restaurant -> {
+          restaurant.setName(StringUtils.stripAccents(restaurant.getName()));
+          consumer.accept(restaurant);
+        });
+  }
+
+  /**
+   * One page of the nearby restaurants, nearest first, starting after the request's cursor.
+   * The nearby restaurants come from the repository's cached listing, so paging through them
+   * loads the database once per cache entry. Only the restaurants of the page are kept in a
+   * bounded max-heap, the rest are dropped as soon as they are known to be farther.
+   */
+  private GetRestaurantsResponse findNearestRestaurants(
+      GetRestaurantsRequest getRestaurantsRequest, LocalTime currentTime) {
+    final double latitude = getRestaurantsRequest.getLatitude();
+    final double longitude = getRestaurantsRequest.getLongitude();
+    final int limit = getRestaurantsRequest.getLimit() != null
+        ? getRestaurantsRequest.getLimit() : GetRestaurantsRequest.DEFAULT_LIMIT;
+    final DistanceCursor cursor = getRestaurantsRequest.getCursor() != null
+        ? DistanceCursor.decode(getRestaurantsRequest.getCursor()) : null;
+    Double servingRange = normalHoursServingRadiusInKms;
+    if (isPeekHour(currentTime)) {
+      servingRange = peakHoursServingRadiusInKms;
+    }
+
+    PriorityQueue<Restaurant> nearest = new PriorityQueue<>(limit + 1, BY_DISTANCE.reversed());
+    boolean hasMore = false;
+    for (Restaurant restaurant : restaurantRepositoryService
+        .findAllRestaurantsCloseBy(latitude, longitude, currentTime, servingRange)) {
+      double distance = GeoUtils.findDistanceInKm(latitude, longitude, restaurant.getLatitude(),
+          restaurant.getLongitude());
+      if (cursor != null && !cursor.isBefore(distance, restaurant.getRestaurantId())) {
+        continue;
+      }
+      restaurant.setDistanceInKms(distance);
+      if (nearest.size() == limit) {
+        hasMore = true;
+        if (BY_DISTANCE.compare(restaurant, nearest.peek()) >= 0) {
+          continue;
+        }
+        nearest.poll();
+      }
+      nearest.offer(restaurant);
+    }
+
+    List<Restaurant> restaurants = new ArrayList<>(nearest);
+    restaurants.sort(BY_DISTANCE);
+    restaurants.forEach(restaurant -> {
+      restaurant.setName(StringUtils.stripAccents(restaurant.getName()));
+    });
+    GetRestaurantsResponse getRestaurantsResponse = new GetRestaurantsResponse(restaurants);
+    if (hasMore) {
+      Restaurant last = restaurants.get(restaurants.size() - 1);
+      getRestaurantsResponse.setNextCursor(
+          new DistanceCursor(last.getDistanceInKms(), last.getRestaurantId()).encode());
+    }
+    return getRestaurantsResponse;
+  }
+
   // COMPLETED: CRIO_TASK_MODULE_RESTAURANTSEARCH
   // Implement findRestaurantsBySearchQuery. The request object has the search string.
   // We have to combine results from multiple sources:
@@ -69,8 +170,19 @@ public class RestaurantServiceImpl implements RestaurantService {
     if (!getRestaurantsRequest.hasSearchQuery()) {
       return findAllRestaurantsCloseBy(getRestaurantsRequest, currentTime);
     }
+    return searchRestaurants(getRestaurantsRequest, currentTime).join();
+  }
 
-    List<Restaurant> restaurants = new ArrayList<>();
+  /**
+   * Search the four categories in parallel on the search executor. The returned future
+   * completes once every category has answered, failed or run for qeats.search.timeout-millis,
+   * with the restaurants of the categories that answered, in category order, each restaurant
+   * listed once. With
+   * qeats.search.combined set, the categories are ranked in a single pass by the repository
+   * instead, each restaurant listed once.
+   */
+  private CompletableFuture<GetRestaurantsResponse> searchRestaurants(
+      GetRestaurantsRequest getRestaurantsRequest, LocalTime currentTime) {
     final Double latitude = getRestaurantsRequest.getLatitude();
     final Double longitude = getRestaurantsRequest.getLongitude();
     final String searchQuery = getRestaurantsRequest.getSearchFor();
@@ -81,83 +193,80 @@ public class RestaurantServiceImpl implements RestaurantService {
 
     final Double finalServingRadiusInKms = servingRadiusInKms;
 
+    if (combinedSearch) {
+      return searchAsync("all categories", () ->
+          restaurantRepositoryService.findRestaurantsBySearchQuery(latitude, longitude,
+              searchQuery, currentTime, finalServingRadiusInKms))
+          .thenApply(this::toSearchResponse);
+    }
 
     // Restaurants by Name
-    CompletableFuture<List<Restaurant>> completableFuture1 =
-        getRestaurantsByName(currentTime, latitude, longitude, searchQuery,
-            finalServingRadiusInKms);
+    CompletableFuture<List<Restaurant>> byName = searchAsync("name", () ->
+        restaurantRepositoryService.findRestaurantsByName(latitude, longitude, searchQuery,
+            currentTime, finalServingRadiusInKms));
 
     // Restaurants by Cuisines (Attributes)
-    CompletableFuture<List<Restaurant>> completableFuture2 =
-        getRestaurantsByAttributes(currentTime, latitude, longitude, searchQuery,
-            finalServingRadiusInKms);
+    CompletableFuture<List<Restaurant>> byAttributes = searchAsync("attributes", () ->
+        restaurantRepositoryService.findRestaurantsByAttributes(latitude, longitude, searchQuery,
+            currentTime, finalServingRadiusInKms));
 
     // Restaurants by Food Item
-    CompletableFuture<List<Restaurant>> completableFuture3 =
-        getRestaurantsByItemName(currentTime, latitude, longitude, searchQuery,
-            finalServingRadiusInKms);
+    CompletableFuture<List<Restaurant>> byItemName = searchAsync("item name", () ->
+        restaurantRepositoryService.findRestaurantsByItemName(latitude, longitude, searchQuery,
+            currentTime, finalServingRadiusInKms));
 
     // Restaurants by Food Item Attributes
-    CompletableFuture<List<Restaurant>> completableFuture4 =
-        getRestaurantsByItemAttributes(currentTime, latitude, longitude, searchQuery,
-            finalServingRadiusInKms);
-
-    CompletableFuture.allOf(completableFuture1, completableFuture2, completableFuture3,
-        completableFuture4);
-
-    try {
-      restaurants.addAll(completableFuture1.get());
-      restaurants.addAll(completableFuture2.get());
-      restaurants.addAll(completableFuture3.get());
-      restaurants.addAll(completableFuture4.get());
-    } catch (InterruptedException | ExecutionException e) {
-      log.error(e.getMessage());
-      e.printStackTrace();
-    }
+    CompletableFuture<List<Restaurant>> byItemAttributes = searchAsync("item attributes", () ->
+        restaurantRepositoryService.findRestaurantsByItemAttributes(latitude, longitude,
+            searchQuery, currentTime, finalServingRadiusInKms));
+
+    return CompletableFuture.allOf(byName, byAttributes, byItemName, byItemAttributes)
+        .thenApply(ignored -> {
+          // A restaurant matching several categories is listed once, under the first one.
+          Map<String, Restaurant> restaurants = new LinkedHashMap<>();
+          for (CompletableFuture<List<Restaurant>> category :
+              Arrays.asList(byName, byAttributes, byItemName, byItemAttributes)) {
+            for (Restaurant restaurant : category.join()) {
+              restaurants.putIfAbsent(restaurant.getRestaurantId(), restaurant);
+            }
+          }
+          return toSearchResponse(new ArrayList<>(restaurants.values()));
+        });
+  }
 
+  private GetRestaurantsResponse toSearchResponse(List<Restaurant> restaurants) {
     restaurants.forEach(restaurant -> {
       restaurant.setName(StringUtils.stripAccents(restaurant.getName()));
     });
     return new GetRestaurantsResponse(restaurants);
   }
 
-  @Async
-  private CompletableFuture<List<Restaurant>> getRestaurantsByItemAttributes(
-      LocalTime currentTime, Double latitude, Double longitude, String searchQuery,
-      Double finalServingRadiusInKms) {
-    return CompletableFuture.completedFuture(restaurantRepositoryService
-        .findRestaurantsByItemAttributes(latitude, longitude, searchQuery, currentTime,
-            finalServingRadiusInKms));
-  }
-
-  @Async
-  private CompletableFuture<List<Restaurant>> getRestaurantsByItemName(
-      LocalTime currentTime, Double latitude, Double longitude, String searchQuery,
-      Double finalServingRadiusInKms) {
-    return CompletableFuture.completedFuture(restaurantRepositoryService
-        .findRestaurantsByItemName(latitude, longitude, searchQuery, currentTime,
-            finalServingRadiusInKms));
-  }
-
-  @Async
-  private CompletableFuture<List<Restaurant>> getRestaurantsByAttributes(
-      LocalTime currentTime, Double latitude, Double longitude, String searchQuery,
-      Double finalServingRadiusInKms) {
-    return CompletableFuture.completedFuture(restaurantRepositoryService
-        .findRestaurantsByAttributes(latitude, longitude, searchQuery, currentTime,
-            finalServingRadiusInKms));
-  }
-
-  @Async
-  private CompletableFuture<List<Restaurant>> getRestaurantsByName(
-      LocalTime currentTime, Double latitude, Double longitude, String searchQuery,
-      Double finalServingRadiusInKms) {
-    return CompletableFuture.completedFuture(restaurantRepositoryService
-        .findRestaurantsByName(latitude, longitude, searchQuery, currentTime,
-            finalServingRadiusInKms));
+  /**
+   * Results of one search category, or none if it fails, is rejected by a full executor or is
+   * still running after qeats.search.timeout-millis.
+   */
+  private CompletableFuture<List<Restaurant>> searchAsync(String category,
+      Supplier<List<Restaurant>> search) {
+    CompletableFuture<List<Restaurant>> future;
+    try {
+      future = CompletableFuture.supplyAsync(search, searchExecutor);
+    } catch (RejectedExecutionException e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+    }
+    return future.orTimeout(searchTimeoutInMillis, TimeUnit.MILLISECONDS)
+        .exceptionally(e -> {
+          Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+          if (cause instanceof TimeoutException) {
+            log.warn("Search by {} timed out, its restaurants are left out", category);
+          } else {
+            log.warn("Search by {} failed, its restaurants are left out: {}", category,
+                cause.getMessage());
+          }
+          return Collections.emptyList();
+        });
   }
 
-
   private boolean isPeekHour(LocalTime currentTime) {
     LocalTime s1 = LocalTime.of(8, 0);
     LocalTime e1 = LocalTime.of(10, 0);
@@ -181,38 +290,19 @@ public class RestaurantServiceImpl implements RestaurantService {
   // Implement variant of findRestaurantsBySearchQuery which is at least 1.5x time faster than
   // findRestaurantsBySearchQuery.
   @Override
-  @Async("restaurantExecutor")
-  public GetRestaurantsResponse findRestaurantsBySearchQueryMt(
+  public CompletableFuture<GetRestaurantsResponse> findRestaurantsBySearchQueryMt(
       GetRestaurantsRequest getRestaurantsRequest, LocalTime currentTime) {
-
     if (!getRestaurantsRequest.hasSearchQuery()) {
-      return findAllRestaurantsCloseBy(getRestaurantsRequest, currentTime);
-    }
-
-    List<Restaurant> restaurants = new ArrayList<>();
-    final Double latitude = getRestaurantsRequest.getLatitude();
-    final Double longitude = getRestaurantsRequest.getLongitude();
-    final String searchQuery = getRestaurantsRequest.getSearchFor();
-    Double servingRadiusInKms = normalHoursServingRadiusInKms;
-    if (isPeekHour(currentTime)) {
-      servingRadiusInKms = peakHoursServingRadiusInKms;
+      // A full executor fails the future instead of throwing at the caller.
+      try {
+        return CompletableFuture.supplyAsync(
+            () -> findAllRestaurantsCloseBy(getRestaurantsRequest, currentTime), searchExecutor);
+      } catch (RejectedExecutionException e) {
+        CompletableFuture<GetRestaurantsResponse> rejected = new CompletableFuture<>();
+        rejected.completeExceptionally(e);
+        return rejected;
+      }
     }
-
-    // Restaurants by Name
-    restaurants.addAll(restaurantRepositoryService.findRestaurantsByName(latitude, longitude,
-        searchQuery, currentTime, servingRadiusInKms));
-
-    // Restaurants by Cuisines (Attributes)
-    restaurants.addAll(restaurantRepositoryService.findRestaurantsByAttributes(latitude,
-        longitude, searchQuery, currentTime, servingRadiusInKms));
-
-    // Restaurants by Food Item
-    restaurants.addAll(restaurantRepositoryService.findRestaurantsByItemName(latitude,
-        longitude, searchQuery, currentTime, servingRadiusInKms));
-
-    // Restaurants by Food Item Attributes
-    restaurants.addAll(restaurantRepositoryService.findRestaurantsByItemAttributes(latitude,
-        longitude, searchQuery, currentTime, servingRadiusInKms));
-    return new GetRestaurantsResponse(restaurants);
+    return searchRestaurants(getRestaurantsRequest, currentTime);
   }
 }
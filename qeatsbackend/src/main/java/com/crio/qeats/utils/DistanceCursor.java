@@ -0,0 +1,79 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a list of restaurants ordered by distance, then by restaurant id.
+ *
+ * <p>The cursor holds the distance and id of the last restaurant of a page, the next page starts
+ * right after it. Clients get it as an opaque URL safe string and send it back unchanged.
+ */
+public final class DistanceCursor {
+
+  private static final char SEPARATOR = ':';
+
+  private final double distanceInKms;
+  private final String restaurantId;
+
+  public DistanceCursor(double distanceInKms, String restaurantId) {
+    this.distanceInKms = distanceInKms;
+    this.restaurantId = restaurantId;
+  }
+
+  /**
+   * Parse a cursor previously returned by {@link #encode()}.
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public static DistanceCursor decode(String cursor) {
+    String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    int separator = decoded.indexOf(SEPARATOR);
+    if (separator <= 0) {
+      throw new IllegalArgumentException("Malformed cursor " + cursor);
+    }
+    double distanceInKms = Double.parseDouble(decoded.substring(0, separator));
+    if (Double.isNaN(distanceInKms)) {
+      throw new IllegalArgumentException("Malformed cursor " + cursor);
+    }
+    return new DistanceCursor(distanceInKms, decoded.substring(separator + 1));
+  }
+
+  public String encode() {
+    String cursor = Double.toString(distanceInKms) + SEPARATOR + restaurantId;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Whether a restaurant comes after this cursor, i.e. it was not on any previous page.
+   */
+  public boolean isBefore(double distanceInKms, String restaurantId) {
+    return compare(this.distanceInKms, this.restaurantId, distanceInKms, restaurantId) < 0;
+  }
+
+  /**
+   * Order restaurants by distance, ties broken by restaurant id so that pages never overlap.
+   */
+  public static int compare(double distanceInKms, String restaurantId,
+      double otherDistanceInKms, String otherRestaurantId) {
+    int byDistance = Double.compare(distanceInKms, otherDistanceInKms);
+    if (byDistance != 0) {
+      return byDistance;
+    }
+    return restaurantId.compareTo(otherRestaurantId);
+  }
+
+  public double getDistanceInKms() {
+    return distanceInKms;
+  }
+
+  public String getRestaurantId() {
+    return restaurantId;
+  }
+}
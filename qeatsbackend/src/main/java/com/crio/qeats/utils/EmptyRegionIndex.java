@@ -0,0 +1,95 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import ch.hsr.geohash.BoundingBox;
+import ch.hsr.geohash.GeoHash;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Bitmap of the coarse geohash regions with no point in or next to them, so that lookups from
+ * such a region can be answered empty without searching.
+ *
+ * <p>Regions are geohashes of {@link #PRECISION} characters, about 20 x 40 km at the equator,
+ * one bit each. A region is marked occupied if a point lies in it or in one of its 8 neighbours.
+ * Every point outside an unmarked region and its neighbours is at least a region side away, so
+ * {@link #isEmpty} only answers true when the radius is shorter than the sides of the region.
+ *
+ * <p>Instances are immutable once built and can be shared between threads.
+ */
+public class EmptyRegionIndex {
+
+  public static final int PRECISION = 4;
+
+  private static final int BITS = PRECISION * 5;
+
+  private final BitSet occupied;
+  private final int size;
+
+  private EmptyRegionIndex(BitSet occupied, int size) {
+    this.occupied = occupied;
+    this.size = size;
+  }
+
+  /**
+   * Build the bitmap of the regions around the given points.
+   * @param points points to index
+   * @param latitude extracts the latitude of a point
+   * @param longitude extracts the longitude of a point
+   * @return immutable index over the points
+   */
+  public static <T> EmptyRegionIndex build(Collection<T> points, ToDoubleFunction<T> latitude,
+      ToDoubleFunction<T> longitude) {
+    BitSet occupied = new BitSet(1 << BITS);
+    for (T point : points) {
+      GeoHash region = GeoHash.withCharacterPrecision(latitude.applyAsDouble(point),
+          longitude.applyAsDouble(point), PRECISION);
+      occupied.set(bit(region));
+      for (GeoHash neighbour : region.getAdjacent()) {
+        occupied.set(bit(neighbour));
+      }
+    }
+    return new EmptyRegionIndex(occupied, points.size());
+  }
+
+  /**
+   * Whether no point can be within the radius of the location.
+   * @return true if there is certainly no point within the radius, false if there may be one
+   */
+  public boolean isEmpty(double latitude, double longitude, double radiusInKms) {
+    GeoHash region = GeoHash.withCharacterPrecision(latitude, longitude, PRECISION);
+    return !occupied.get(bit(region)) && radiusInKms < minimumSideInKms(region);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int occupiedRegionCount() {
+    return occupied.cardinality();
+  }
+
+  private static int bit(GeoHash region) {
+    return (int) (region.longValue() >>> (Long.SIZE - BITS));
+  }
+
+  // Shortest side among the region and its neighbours, the neighbour towards the pole being the
+  // narrowest.
+  private static double minimumSideInKms(GeoHash region) {
+    BoundingBox box = region.getBoundingBox();
+    double height = box.getMaxLat() - box.getMinLat();
+    double polewardLatitude = Math.min(90, Math.max(Math.abs(box.getMinLat()),
+        Math.abs(box.getMaxLat())) + height);
+    double heightInKms = GeoUtils.findDistanceInKm(box.getMinLat(), box.getMinLon(),
+        box.getMaxLat(), box.getMinLon());
+    double widthInKms = GeoUtils.findDistanceInKm(polewardLatitude, box.getMinLon(),
+        polewardLatitude, box.getMaxLon());
+    return Math.min(heightInKms, widthInKms);
+  }
+}
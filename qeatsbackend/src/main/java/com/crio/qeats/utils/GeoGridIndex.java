@@ -0,0 +1,149 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Process-local spatial index which buckets points into a uniform latitude/longitude grid.
+ *
+ * <p>A radius lookup only visits the cells overlapping the bounding box of the search circle,
+ * so callers get a small candidate list instead of scanning every point. The index does not
+ * apply the exact distance check itself; candidates near the corners of the bounding box may
+ * still be outside the radius and must be filtered with {@link GeoUtils#findDistanceInKm}.
+ *
+ * <p>Instances are immutable once built and can be shared between threads.
+ */
+public class GeoGridIndex<T> {
+
+  public static final double DEFAULT_CELL_SIZE_IN_DEGREES = 0.05;
+
+  // Length of one degree of latitude on a sphere of radius 6371 km.
+  private static final double KMS_PER_DEGREE = 111.195;
+
+  private final double cellSizeInDegrees;
+  private final int longitudeCells;
+  private final Map<Long, List<T>> cells;
+  private final int size;
+
+  private GeoGridIndex(double cellSizeInDegrees, Map<Long, List<T>> cells, int size) {
+    this.cellSizeInDegrees = cellSizeInDegrees;
+    this.longitudeCells = (int) Math.ceil(360.0 / cellSizeInDegrees);
+    this.cells = cells;
+    this.size = size;
+  }
+
+  /**
+   * Build an index over the given points using the default cell size.
+   * @param points points to index
+   * @param latitude extracts the latitude of a point
+   * @param longitude extracts the longitude of a point
+   * @return immutable index over the points
+   */
+  public static <T> GeoGridIndex<T> build(Collection<T> points, ToDoubleFunction<T> latitude,
+      ToDoubleFunction<T> longitude) {
+    return build(points, latitude, longitude, DEFAULT_CELL_SIZE_IN_DEGREES);
+  }
+
+  /**
+   * Build an index over the given points.
+   * @param points points to index
+   * @param latitude extracts the latitude of a point
+   * @param longitude extracts the longitude of a point
+   * @param cellSizeInDegrees edge length of a grid cell in degrees
+   * @return immutable index over the points
+   */
+  public static <T> GeoGridIndex<T> build(Collection<T> points, ToDoubleFunction<T> latitude,
+      ToDoubleFunction<T> longitude, double cellSizeInDegrees) {
+    if (cellSizeInDegrees <= 0 || cellSizeInDegrees > 180) {
+      throw new IllegalArgumentException("Invalid cell size " + cellSizeInDegrees);
+    }
+
+    GeoGridIndex<T> index = new GeoGridIndex<>(cellSizeInDegrees, new HashMap<>(), points.size());
+    for (T point : points) {
+      long key = index.cellKey(index.latitudeCell(latitude.applyAsDouble(point)),
+          index.longitudeCell(longitude.applyAsDouble(point)));
+      index.cells.computeIfAbsent(key, k -> new ArrayList<>()).add(point);
+    }
+    return index;
+  }
+
+  /**
+   * Get the points stored in every cell which intersects the bounding box of the circle.
+   * @param latitude latitude of the centre
+   * @param longitude longitude of the centre
+   * @param radiusInKms radius of the circle
+   * @return candidate points, a superset of the points within the radius
+   */
+  public List<T> findCandidates(double latitude, double longitude, double radiusInKms) {
+    if (cells.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    double latitudeDelta = radiusInKms / KMS_PER_DEGREE;
+    double minLatitude = Math.max(-90.0, latitude - latitudeDelta);
+    double maxLatitude = Math.min(90.0, latitude + latitudeDelta);
+
+    // Longitude degrees shrink towards the poles, use the widest latitude in the box.
+    double widestLatitude = Math.max(Math.abs(minLatitude), Math.abs(maxLatitude));
+    double cosine = Math.cos(Math.toRadians(widestLatitude));
+    double longitudeDelta = cosine <= 0 ? 180.0 : radiusInKms / (KMS_PER_DEGREE * cosine);
+
+    int minLatitudeCell = latitudeCell(minLatitude);
+    int maxLatitudeCell = latitudeCell(maxLatitude);
+    int minLongitudeCell;
+    int maxLongitudeCell;
+    if (longitudeDelta >= 180.0) {
+      minLongitudeCell = 0;
+      maxLongitudeCell = longitudeCells - 1;
+    } else {
+      minLongitudeCell = (int) Math.floor((longitude - longitudeDelta + 180.0)
+          / cellSizeInDegrees);
+      maxLongitudeCell = (int) Math.floor((longitude + longitudeDelta + 180.0)
+          / cellSizeInDegrees);
+    }
+
+    List<T> candidates = new ArrayList<>();
+    for (int latitudeCell = minLatitudeCell; latitudeCell <= maxLatitudeCell; latitudeCell++) {
+      for (int cell = minLongitudeCell; cell <= maxLongitudeCell; cell++) {
+        // Wrap around the anti-meridian.
+        List<T> points = cells.get(cellKey(latitudeCell, Math.floorMod(cell, longitudeCells)));
+        if (points != null) {
+          candidates.addAll(points);
+        }
+      }
+    }
+    return candidates;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int cellCount() {
+    return cells.size();
+  }
+
+  private int latitudeCell(double latitude) {
+    return (int) Math.floor((latitude + 90.0) / cellSizeInDegrees);
+  }
+
+  private int longitudeCell(double longitude) {
+    return Math.floorMod((int) Math.floor((longitude + 180.0) / cellSizeInDegrees),
+        longitudeCells);
+  }
+
+  private long cellKey(int latitudeCell, int longitudeCell) {
+    return ((long) latitudeCell << 32) | (longitudeCell & 0xffffffffL);
+  }
+}
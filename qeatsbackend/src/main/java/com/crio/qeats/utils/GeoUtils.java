@@ -13,11 +13,90 @@ import lombok.Data;
 @AllArgsConstructor
 public class GeoUtils {
 
+  public static final double EARTH_RADIUS_IN_KMS = 6371;
+
+  // Relative error tolerated from the equirectangular approximation. Points whose approximate
+  // distance is within this band of the radius are re-checked with the exact formula.
+  private static final double APPROXIMATION_TOLERANCE = 0.02;
+  // Beyond these limits the approximation error can exceed the tolerance band.
+  private static final double MAX_APPROXIMATION_RADIUS_IN_KMS = 50;
+  private static final double MAX_APPROXIMATION_LATITUDE = 70;
+
   public static double findDistanceInKm(double srcLatitude, double srcLongitude,
       double dstLatitude, double dstLongitude) {
     return distance(srcLatitude, dstLatitude, srcLongitude, dstLongitude, 0, 0);
   }
 
+  /**
+   * Batch variant of {@link #findDistanceInKm} for points stored as parallel primitive arrays.
+   * Collects the indices of the points strictly closer than the radius to the source, giving
+   * exactly the same answer as calling findDistanceInKm on every point.
+   *   - Points outside the lat/lon bounding box of the radius are discarded first.
+   *   - The rest are measured with the equirectangular approximation.
+   *   - Only points whose approximate distance is close to the radius use the haversine formula.
+   * @param latitudes latitudes of the points
+   * @param longitudes longitudes of the points
+   * @param count number of points to look at, starting from index 0
+   * @param matches receives the indices of the points within the radius, in ascending order;
+   *     must have room for count entries
+   * @return number of indices written to matches
+   */
+  public static int findWithinRadius(double srcLatitude, double srcLongitude,
+      double[] latitudes, double[] longitudes, int count, double radiusInKms, int[] matches) {
+    double angularRadius = radiusInKms / EARTH_RADIUS_IN_KMS;
+    // Padded slightly so that rounding never drops a point sitting on the box edge.
+    double latitudeDelta = Math.toDegrees(angularRadius) * (1 + 1e-9);
+    double sinRadiusOverCosLatitude = Math.sin(Math.min(angularRadius, Math.PI / 2))
+        / Math.cos(Math.toRadians(srcLatitude));
+    double longitudeDelta = sinRadiusOverCosLatitude >= 1 || Double.isNaN(sinRadiusOverCosLatitude)
+        ? 360.0 : Math.toDegrees(Math.asin(sinRadiusOverCosLatitude)) * (1 + 1e-9);
+
+    boolean approximate = radiusInKms <= MAX_APPROXIMATION_RADIUS_IN_KMS
+        && Math.abs(srcLatitude) <= MAX_APPROXIMATION_LATITUDE;
+    double cosLatitude = Math.cos(Math.toRadians(srcLatitude));
+    double radiusInDegrees = Math.toDegrees(angularRadius);
+    double innerSquared = square(radiusInDegrees * (1 - APPROXIMATION_TOLERANCE));
+    double outerSquared = square(radiusInDegrees * (1 + APPROXIMATION_TOLERANCE));
+
+    int matched = 0;
+    for (int i = 0; i < count; i++) {
+      double latitudeDifference = latitudes[i] - srcLatitude;
+      if (latitudeDifference > latitudeDelta || latitudeDifference < -latitudeDelta) {
+        continue;
+      }
+      double longitudeDifference = longitudes[i] - srcLongitude;
+      if (longitudeDifference > 180) {
+        longitudeDifference -= 360;
+      } else if (longitudeDifference < -180) {
+        longitudeDifference += 360;
+      }
+      if (longitudeDifference > longitudeDelta || longitudeDifference < -longitudeDelta) {
+        continue;
+      }
+
+      if (approximate) {
+        double x = longitudeDifference * cosLatitude;
+        double squared = x * x + latitudeDifference * latitudeDifference;
+        if (squared < innerSquared) {
+          matches[matched++] = i;
+          continue;
+        }
+        if (squared > outerSquared) {
+          continue;
+        }
+      }
+      if (findDistanceInKm(srcLatitude, srcLongitude, latitudes[i], longitudes[i])
+          < radiusInKms) {
+        matches[matched++] = i;
+      }
+    }
+    return matched;
+  }
+
+  private static double square(double value) {
+    return value * value;
+  }
+
   /**
    * THIS IS BORROWED CODE. Calculate distance between two points in latitude and longitude taking
    * into account height difference. If you are not interested in height difference pass 0.0. Uses
@@ -32,7 +111,7 @@ public class GeoUtils {
   private static double distance(
       double lat1, double lat2, double lon1, double lon2, double el1, double el2) {
 
-    final int R = 6371; // Radius of the earth
+    final double R = EARTH_RADIUS_IN_KMS; // Radius of the earth
 
     double latDistance = Math.toRadians(lat2 - lat1);
     double lonDistance = Math.toRadians(lon2 - lon1);
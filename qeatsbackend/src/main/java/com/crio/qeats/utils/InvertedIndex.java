@@ -0,0 +1,193 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Process-local text index answering exact and substring matches over the texts of numbered
+ * documents, such as the name or the attributes of restaurants.
+ *
+ * <p>Texts are normalized with {@link #normalize}, so matching ignores case, accents and
+ * repeated spaces. Every text is indexed under its normalized form, for exact matches, and under
+ * every n-gram of up to {@link #MAX_GRAM_LENGTH} characters, for substring matches. A query of
+ * up to that length is answered by its own n-gram list, a longer one by the shortest list among
+ * its n-grams, each candidate then checked against the query.
+ *
+ * <p>Instances are immutable once built and can be shared between threads.
+ */
+public class InvertedIndex {
+
+  public static final int MAX_GRAM_LENGTH = 3;
+
+  private static final Pattern SPACES = Pattern.compile("\\s+");
+
+  // Indexed texts and the document each belongs to, by text number.
+  private final String[] texts;
+  private final int[] textDocuments;
+  // Sorted text numbers by n-gram.
+  private final Map<String, int[]> grams;
+  // Sorted document numbers by whole text.
+  private final Map<String, int[]> exactTexts;
+
+  private InvertedIndex(String[] texts, int[] textDocuments, Map<String, int[]> grams,
+      Map<String, int[]> exactTexts) {
+    this.texts = texts;
+    this.textDocuments = textDocuments;
+    this.grams = grams;
+    this.exactTexts = exactTexts;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Lower case a text without accents, trimmed and with single spaces.
+   */
+  public static String normalize(String text) {
+    return SPACES.matcher(StringUtils.stripAccents(text).toLowerCase(Locale.ROOT).trim())
+        .replaceAll(" ");
+  }
+
+  /**
+   * Find the documents with a text equal to the query once both are normalized.
+   * @return document numbers in increasing order
+   */
+  public int[] findExact(String query) {
+    int[] documents = exactTexts.get(normalize(query));
+    return documents == null ? new int[0] : documents.clone();
+  }
+
+  /**
+   * Find the documents with a text containing the query once both are normalized.
+   * @return document numbers in increasing order, none for a blank query
+   */
+  public int[] findContaining(String query) {
+    String normalizedQuery = normalize(query);
+    if (normalizedQuery.isEmpty()) {
+      return new int[0];
+    }
+    BitSet documents = new BitSet();
+    if (normalizedQuery.length() <= MAX_GRAM_LENGTH) {
+      for (int text : grams.getOrDefault(normalizedQuery, new int[0])) {
+        documents.set(textDocuments[text]);
+      }
+    } else {
+      int[] candidates = null;
+      for (int start = 0; start + MAX_GRAM_LENGTH <= normalizedQuery.length(); start++) {
+        int[] texts = grams.get(normalizedQuery.substring(start, start + MAX_GRAM_LENGTH));
+        if (texts == null) {
+          return new int[0];
+        }
+        if (candidates == null || texts.length < candidates.length) {
+          candidates = texts;
+        }
+      }
+      for (int text : candidates) {
+        if (texts[text].contains(normalizedQuery)) {
+          documents.set(textDocuments[text]);
+        }
+      }
+    }
+    return documents.stream().toArray();
+  }
+
+  public int textCount() {
+    return texts.length;
+  }
+
+  public int gramCount() {
+    return grams.size();
+  }
+
+  /**
+   * Collects the texts of the documents, documents being numbered by the caller.
+   */
+  public static final class Builder {
+
+    private final List<String> texts = new ArrayList<>();
+    private final IntList textDocuments = new IntList();
+    private final Map<String, IntList> grams = new HashMap<>();
+    private final Map<String, IntList> exactTexts = new HashMap<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Index a text of a document, blank and null texts are ignored.
+     */
+    public Builder add(int document, String text) {
+      if (text == null) {
+        return this;
+      }
+      String normalizedText = normalize(text);
+      if (normalizedText.isEmpty()) {
+        return this;
+      }
+      int textNumber = texts.size();
+      texts.add(normalizedText);
+      textDocuments.add(document);
+      exactTexts.computeIfAbsent(normalizedText, key -> new IntList()).addIfNotLast(document);
+      for (int length = 1; length <= MAX_GRAM_LENGTH; length++) {
+        for (int start = 0; start + length <= normalizedText.length(); start++) {
+          grams.computeIfAbsent(normalizedText.substring(start, start + length),
+              key -> new IntList()).addIfNotLast(textNumber);
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Build the index. Documents must have been added in increasing number order.
+     */
+    public InvertedIndex build() {
+      return new InvertedIndex(texts.toArray(new String[0]), textDocuments.toArray(),
+          toArrays(grams), toArrays(exactTexts));
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, IntList> lists) {
+      Map<String, int[]> arrays = new HashMap<>(lists.size() * 2);
+      for (Map.Entry<String, IntList> list : lists.entrySet()) {
+        arrays.put(list.getKey(), list.getValue().toArray());
+      }
+      return arrays;
+    }
+  }
+
+  private static final class IntList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    // Texts and documents are added in order, a repeat can only be the last value.
+    void addIfNotLast(int value) {
+      if (size == 0 || values[size - 1] != value) {
+        add(value);
+      }
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opening hours of a restaurant, parsed once into minute-of-day integers.
+ *
+ * <p>A restaurant is open strictly after it opens and strictly before it closes. When the
+ * closing time is earlier than the opening time the window runs past midnight, e.g. 18:00 to
+ * 02:00. Equal opening and closing times mean the restaurant is never open.
+ *
+ * <p>The day is split into 96 slots of 15 minutes. Slots which are entirely open are kept in a
+ * bitmap so that most checks are a single bit test. Only the slots holding the opening or the
+ * closing minute fall back to comparing the exact time.
+ *
+ * <p>Restaurants share a handful of distinct opening and closing times, so parsed instances are
+ * memoized by their source strings and the per-restaurant check does not allocate.
+ */
+public final class OpeningHours {
+
+  public static final OpeningHours ALWAYS_OPEN = new OpeningHours();
+
+  private static final int MINUTES_PER_SLOT = 15;
+  private static final int SLOTS_PER_DAY = 24 * 60 / MINUTES_PER_SLOT;
+  private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+  private static final long NANOS_PER_SLOT = MINUTES_PER_SLOT * NANOS_PER_MINUTE;
+  // Upper bound on memoized opening times, guards against unbounded growth on bad data.
+  private static final int MAX_CACHED_OPENING_TIMES = 1024;
+
+  private static final Map<String, Map<String, OpeningHours>> CACHE = new ConcurrentHashMap<>();
+
+  private final int opensAtMinute;
+  private final int closesAtMinute;
+  private final long[] openSlots = new long[2];
+  private final long[] boundarySlots = new long[2];
+
+  private OpeningHours() {
+    this.opensAtMinute = 0;
+    this.closesAtMinute = 0;
+    openSlots[0] = -1L;
+    openSlots[1] = -1L;
+  }
+
+  private OpeningHours(int opensAtMinute, int closesAtMinute) {
+    this.opensAtMinute = opensAtMinute;
+    this.closesAtMinute = closesAtMinute;
+
+    int opensAtSlot = opensAtMinute / MINUTES_PER_SLOT;
+    int closesAtSlot = closesAtMinute / MINUTES_PER_SLOT;
+    for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+      // Whether a restaurant is open only changes at the opening and the closing minute, so
+      // every other slot is either open or closed as a whole.
+      if (slot == opensAtSlot || slot == closesAtSlot) {
+        setBit(boundarySlots, slot);
+      } else if (isOpenAtNanoOfDay(slot * NANOS_PER_SLOT)) {
+        setBit(openSlots, slot);
+      }
+    }
+  }
+
+  /**
+   * Parse opening hours in HH:mm format.
+   * @param opensAt opening time, null if unknown
+   * @param closesAt closing time, null if unknown
+   * @return parsed opening hours, {@link #ALWAYS_OPEN} if either time is unknown
+   */
+  public static OpeningHours of(String opensAt, String closesAt) {
+    if (opensAt == null || closesAt == null) {
+      return ALWAYS_OPEN;
+    }
+
+    Map<String, OpeningHours> byClosingTime = CACHE.get(opensAt);
+    OpeningHours openingHours = byClosingTime == null ? null : byClosingTime.get(closesAt);
+    if (openingHours != null) {
+      return openingHours;
+    }
+
+    openingHours = new OpeningHours(parseMinuteOfDay(opensAt), parseMinuteOfDay(closesAt));
+    if (CACHE.size() < MAX_CACHED_OPENING_TIMES) {
+      byClosingTime = CACHE.computeIfAbsent(opensAt, k -> new ConcurrentHashMap<>());
+      if (byClosingTime.size() < MAX_CACHED_OPENING_TIMES) {
+        byClosingTime.putIfAbsent(closesAt, openingHours);
+      }
+    }
+    return openingHours;
+  }
+
+  /**
+   * Convert a time of day to minutes since midnight.
+   * The common HH:mm form is parsed by hand; anything else goes through {@link LocalTime}.
+   */
+  static int parseMinuteOfDay(String time) {
+    if (time.length() == 5 && time.charAt(2) == ':') {
+      int hours = twoDigits(time, 0);
+      int minutes = twoDigits(time, 3);
+      if (hours >= 0 && hours < 24 && minutes >= 0 && minutes < 60) {
+        return hours * 60 + minutes;
+      }
+    }
+    LocalTime localTime = LocalTime.parse(time);
+    return localTime.getHour() * 60 + localTime.getMinute();
+  }
+
+  private static int twoDigits(String time, int offset) {
+    int tens = time.charAt(offset) - '0';
+    int units = time.charAt(offset + 1) - '0';
+    if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+      return -1;
+    }
+    return tens * 10 + units;
+  }
+
+  public boolean isOpen(LocalTime time) {
+    long nanoOfDay = time.toNanoOfDay();
+    int slot = (int) (nanoOfDay / NANOS_PER_SLOT);
+    if (testBit(openSlots, slot)) {
+      return true;
+    }
+    return testBit(boundarySlots, slot) && isOpenAtNanoOfDay(nanoOfDay);
+  }
+
+  public int getOpensAtMinute() {
+    return opensAtMinute;
+  }
+
+  public int getClosesAtMinute() {
+    return closesAtMinute;
+  }
+
+  public boolean isOvernight() {
+    return closesAtMinute < opensAtMinute;
+  }
+
+  private boolean isOpenAtNanoOfDay(long nanoOfDay) {
+    long opens = opensAtMinute * NANOS_PER_MINUTE;
+    long closes = closesAtMinute * NANOS_PER_MINUTE;
+    if (isOvernight()) {
+      return nanoOfDay > opens || nanoOfDay < closes;
+    }
+    return nanoOfDay > opens && nanoOfDay < closes;
+  }
+
+  private static void setBit(long[] bits, int slot) {
+    bits[slot >>> 6] |= 1L << slot;
+  }
+
+  private static boolean testBit(long[] bits, int slot) {
+    return (bits[slot >>> 6] & (1L << slot)) != 0;
+  }
+}
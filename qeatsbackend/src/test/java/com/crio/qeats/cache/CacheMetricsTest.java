@@ -0,0 +1,41 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CacheMetricsTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CacheMetrics cacheMetrics = cacheMetrics();
+
+  @Test
+  void hitRatioIsZeroBeforeTheFirstLookup() {
+    assertEquals(0.0, meterRegistry.get("qeats.cache.hit.ratio").tag("tier", CacheMetrics.L1)
+        .gauge().value());
+
+    cacheMetrics.recordHit(CacheMetrics.L1);
+    cacheMetrics.recordMiss(CacheMetrics.L1);
+    cacheMetrics.recordHit(CacheMetrics.L1);
+    cacheMetrics.recordHit(CacheMetrics.L1);
+
+    assertEquals(0.75, cacheMetrics.hitRatio(CacheMetrics.L1));
+    assertEquals(0.0, cacheMetrics.hitRatio(CacheMetrics.L2));
+  }
+
+  private CacheMetrics cacheMetrics() {
+    CacheMetrics cacheMetrics = new CacheMetrics();
+    ReflectionTestUtils.setField(cacheMetrics, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.invokeMethod(cacheMetrics, "registerMeters");
+    return cacheMetrics;
+  }
+}
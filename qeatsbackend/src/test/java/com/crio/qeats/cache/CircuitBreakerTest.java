@@ -0,0 +1,136 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.cache.CircuitBreaker.State;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static final long SLOW_CALL_NANOS = 100;
+  private static final long OPEN_NANOS = 1000;
+
+  private long now;
+  private final List<State> transitions = new ArrayList<>();
+  private final CircuitBreaker circuitBreaker = new CircuitBreaker(10, 4, 50, SLOW_CALL_NANOS,
+      80, OPEN_NANOS, 2, () -> now, (from, to) -> transitions.add(to));
+
+  @Test
+  void opensOnceEnoughCallsOfTheWindowFailed() {
+    succeed(3);
+    fail(2);
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+
+    fail(1);
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  void failuresOutsideOfTheWindowAreForgotten() {
+    fail(1);
+    succeed(10);
+    fail(4);
+
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  void opensWhenMostCallsAreSlow() {
+    for (int i = 0; i < 4; i++) {
+      assertTrue(circuitBreaker.tryAcquire());
+      circuitBreaker.onSuccess(SLOW_CALL_NANOS + 1);
+    }
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+  }
+
+  @Test
+  void probesAfterTheOpenPeriodAndClosesWhenTheyAllSucceed() {
+    fail(4);
+    now += OPEN_NANOS;
+
+    assertTrue(circuitBreaker.tryAcquire());
+    assertTrue(circuitBreaker.tryAcquire());
+    assertFalse(circuitBreaker.tryAcquire());
+    circuitBreaker.onSuccess(1);
+    assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+    circuitBreaker.onSuccess(1);
+
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+    assertEquals(Arrays.asList(State.OPEN, State.HALF_OPEN, State.CLOSED), transitions);
+    fail(3);
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  void failedProbeOpensAgainForAnotherPeriod() {
+    fail(4);
+    now += OPEN_NANOS;
+
+    assertTrue(circuitBreaker.tryAcquire());
+    circuitBreaker.onFailure();
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+    now += OPEN_NANOS - 1;
+    assertFalse(circuitBreaker.tryAcquire());
+    now += 1;
+    assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  void probeThrowingAnyExceptionOpensAgainInsteadOfHoldingItsSlot() {
+    fail(4);
+    now += OPEN_NANOS;
+
+    assertTrue(circuitBreaker.tryAcquire());
+    assertThrows(IllegalStateException.class, () -> circuitBreaker.call(() -> {
+      throw new IllegalStateException("not a Redis error");
+    }));
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+    now += OPEN_NANOS;
+    assertTrue(circuitBreaker.tryAcquire());
+    assertEquals("ok", circuitBreaker.call(() -> "ok"));
+    assertTrue(circuitBreaker.tryAcquire());
+    assertEquals("ok", circuitBreaker.call(() -> "ok"));
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  void callsAreTimedWithTheClock() {
+    for (int i = 0; i < 4; i++) {
+      assertTrue(circuitBreaker.tryAcquire());
+      circuitBreaker.call(() -> now += SLOW_CALL_NANOS + 1);
+    }
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+  }
+
+  private void succeed(int calls) {
+    for (int i = 0; i < calls; i++) {
+      assertTrue(circuitBreaker.tryAcquire());
+      circuitBreaker.onSuccess(1);
+    }
+  }
+
+  private void fail(int calls) {
+    for (int i = 0; i < calls; i++) {
+      assertTrue(circuitBreaker.tryAcquire());
+      circuitBreaker.onFailure();
+    }
+  }
+}
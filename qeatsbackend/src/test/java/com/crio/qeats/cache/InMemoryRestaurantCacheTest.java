@@ -0,0 +1,77 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.crio.qeats.dto.Restaurant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class InMemoryRestaurantCacheTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final InMemoryRestaurantCache restaurantCache =
+      new InMemoryRestaurantCache(2, 60, 10, TimeUnit.SECONDS, now::get);
+
+  @Test
+  void updateReplacesTheRestaurantInEveryCellAndKeepsTheirExpiry() {
+    Restaurant shared = restaurant("1", "Old");
+    Restaurant other = restaurant("2", "Other");
+    restaurantCache.put("a:3.0", Arrays.asList(shared, other));
+    restaurantCache.put("b:3.0", Arrays.asList(shared));
+    List<Restaurant> untouched = restaurantCache.get("a:3.0");
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+    restaurantCache.update(restaurant("1", "New"));
+
+    assertEquals("New", restaurantCache.get("a:3.0").get(0).getName());
+    assertSame(other, restaurantCache.get("a:3.0").get(1));
+    assertEquals("New", restaurantCache.get("b:3.0").get(0).getName());
+    assertEquals("Old", untouched.get(0).getName());
+    now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+    assertNull(restaurantCache.get("a:3.0"));
+  }
+
+  @Test
+  void cachedListsAreReadOnlyAndBounded() {
+    restaurantCache.put("a:3.0", Arrays.asList(restaurant("1", "One")));
+    restaurantCache.put("b:3.0", Arrays.asList(restaurant("2", "Two")));
+    restaurantCache.put("c:3.0", Arrays.asList(restaurant("3", "Three")));
+
+    assertThrows(UnsupportedOperationException.class,
+        () -> restaurantCache.get("c:3.0").set(0, restaurant("4", "Four")));
+    assertNull(restaurantCache.get("a:3.0"));
+    assertEquals(2, restaurantCache.size());
+  }
+
+  @Test
+  void cellsWithoutCandidatesExpireAfterTheNegativeTtl() {
+    restaurantCache.put("a:3.0", Arrays.asList(restaurant("1", "One")));
+    restaurantCache.put("b:3.0", Arrays.asList());
+
+    assertEquals(0, restaurantCache.get("b:3.0").size());
+    assertEquals(TimeUnit.SECONDS.toMillis(10),
+        restaurantCache.getWithTimeToLive("b:3.0").getTimeToLiveInMillis());
+    now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+    assertNull(restaurantCache.get("b:3.0"));
+    assertEquals(1, restaurantCache.get("a:3.0").size());
+  }
+
+  private static Restaurant restaurant(String restaurantId, String name) {
+    Restaurant restaurant = new Restaurant();
+    restaurant.setRestaurantId(restaurantId);
+    restaurant.setName(name);
+    return restaurant;
+  }
+}
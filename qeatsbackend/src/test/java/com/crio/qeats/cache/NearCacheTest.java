@@ -0,0 +1,59 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class NearCacheTest {
+
+  private final AtomicLong now = new AtomicLong();
+
+  @Test
+  public void entriesExpireAfterTtl() {
+    NearCache<String> nearCache = new NearCache<>(10, 30, TimeUnit.SECONDS, now::get);
+    nearCache.put("tdr1y", "cached");
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(29));
+    assertEquals("cached", nearCache.get("tdr1y"));
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertNull(nearCache.get("tdr1y"));
+    assertEquals(0, nearCache.size());
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvictedPastMaxEntries() {
+    NearCache<String> nearCache = new NearCache<>(2, 30, TimeUnit.SECONDS, now::get);
+    nearCache.put("a", "1");
+    nearCache.put("b", "2");
+    nearCache.get("a");
+    nearCache.put("c", "3");
+
+    assertEquals("1", nearCache.get("a"));
+    assertNull(nearCache.get("b"));
+    assertEquals("3", nearCache.get("c"));
+  }
+
+  @Test
+  public void invalidatedEntriesAreGone() {
+    NearCache<String> nearCache = new NearCache<>(10, 30, TimeUnit.SECONDS, now::get);
+    nearCache.put("a", "1");
+    nearCache.put("b", "2");
+
+    nearCache.invalidate("a");
+    assertNull(nearCache.get("a"));
+    assertEquals("2", nearCache.get("b"));
+
+    nearCache.invalidateAll();
+    assertNull(nearCache.get("b"));
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.QEatsApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import redis.clients.jedis.Jedis;
+
+@SpringBootTest(classes = {QEatsApplication.class}, properties = {
+    "qeats.redis.pool.max-total=1", "qeats.redis.pool.max-wait-millis=50"})
+class RedisCacheTest {
+
+  @Autowired
+  private RedisCache redisCache;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @AfterEach
+  void teardown() {
+    redisCache.flushAll();
+  }
+
+  @Test
+  void pipelinedWritesExpireAndReadBackInKeyOrder() {
+    Map<String, byte[]> values = new LinkedHashMap<>();
+    values.put("a", bytes("1"));
+    values.put("b", bytes("2"));
+    redisCache.putAllBytes(values);
+
+    List<byte[]> read = redisCache.getAllBytes(Arrays.asList("b", "missing", "a"));
+
+    ExpiringValue<byte[]> value = redisCache.getBytesWithTimeToLive("a");
+    assertArrayEquals(bytes("1"), value.getValue());
+    assertEquals(3, read.size());
+    assertArrayEquals(bytes("2"), read.get(0));
+    assertNull(read.get(1));
+    assertArrayEquals(bytes("1"), read.get(2));
+    assertTrue(value.getTimeToLiveInMillis() > 0
+        && value.getTimeToLiveInMillis() <= redisCache.getTtlInSeconds() * 1000L);
+    assertNull(redisCache.getBytesWithTimeToLive("missing"));
+    try (Jedis jedis = redisCache.openDedicatedConnection()) {
+      long ttl = jedis.ttl("b");
+      assertTrue(ttl > 0 && ttl <= redisCache.getTtlInSeconds());
+    }
+    assertEquals(0, redisCache.getJedisPool().getNumActive());
+  }
+
+  @Test
+  void exhaustedPoolIsCountedAndReadAsMiss() {
+    redisCache.putBytes("a", bytes("1"));
+    double exhausted = meterRegistry.get("qeats.redis.pool.exhausted").counter().count();
+
+    Jedis held = redisCache.getJedisPool().getResource();
+    try {
+      assertNull(redisCache.getBytes("a"));
+      assertEquals(LockResult.FAILED, redisCache.tryLock("lock:a", "first", 5000));
+      assertEquals(1.0, meterRegistry.get("qeats.redis.pool.active").gauge().value());
+    } finally {
+      held.close();
+    }
+
+    assertEquals(exhausted + 2,
+        meterRegistry.get("qeats.redis.pool.exhausted").counter().count());
+    assertArrayEquals(bytes("1"), redisCache.getBytes("a"));
+  }
+
+  @Test
+  void lockIsExclusiveAndOnlyReleasedByItsHolder() {
+    assertEquals(LockResult.ACQUIRED, redisCache.tryLock("lock:a", "first", 5000));
+    assertEquals(LockResult.HELD, redisCache.tryLock("lock:a", "second", 5000));
+
+    redisCache.unlock("lock:a", "second");
+    assertEquals(LockResult.HELD, redisCache.tryLock("lock:a", "second", 5000));
+
+    redisCache.unlock("lock:a", "first");
+    assertEquals(LockResult.ACQUIRED, redisCache.tryLock("lock:a", "second", 5000));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
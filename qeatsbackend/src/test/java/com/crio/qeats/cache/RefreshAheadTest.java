@@ -0,0 +1,82 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RefreshAheadTest {
+
+  private static final long WINDOW_IN_MILLIS = TimeUnit.SECONDS.toMillis(300);
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final RefreshAhead refreshAhead = refreshAhead();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void teardown() {
+    release.countDown();
+    ReflectionTestUtils.invokeMethod(refreshAhead, "close");
+  }
+
+  @Test
+  void onlyKeysExpiringWithinTheWindowAreRefreshed() throws InterruptedException {
+    CountDownLatch refreshed = new CountDownLatch(1);
+
+    assertFalse(refreshAhead.refreshIfExpiring("a", WINDOW_IN_MILLIS + 1, refreshed::countDown));
+    assertFalse(refreshAhead.refreshIfExpiring("a", -2, refreshed::countDown));
+    assertTrue(refreshAhead.refreshIfExpiring("a", WINDOW_IN_MILLIS, refreshed::countDown));
+
+    assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void pendingKeysAreNotQueuedTwiceAndAFullQueueIsCounted() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    assertTrue(refreshAhead.refreshIfExpiring("a", 0, () -> {
+      started.countDown();
+      awaitRelease();
+    }));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    assertFalse(refreshAhead.refreshIfExpiring("a", 0, this::awaitRelease));
+    assertTrue(refreshAhead.refreshIfExpiring("b", 0, this::awaitRelease));
+    assertEquals(1.0, meterRegistry.get("qeats.cache.refresh.queue.depth").gauge().value());
+    assertFalse(refreshAhead.refreshIfExpiring("c", 0, this::awaitRelease));
+
+    assertEquals(1.0, meterRegistry.get("qeats.cache.refreshes").tag("result", "rejected")
+        .counter().count());
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private RefreshAhead refreshAhead() {
+    RefreshAhead refreshAhead = new RefreshAhead();
+    ReflectionTestUtils.setField(refreshAhead, "enabled", true);
+    ReflectionTestUtils.setField(refreshAhead, "windowInSeconds", 300L);
+    ReflectionTestUtils.setField(refreshAhead, "threads", 1);
+    ReflectionTestUtils.setField(refreshAhead, "queueCapacity", 1);
+    ReflectionTestUtils.setField(refreshAhead, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.invokeMethod(refreshAhead, "init");
+    return refreshAhead;
+  }
+}
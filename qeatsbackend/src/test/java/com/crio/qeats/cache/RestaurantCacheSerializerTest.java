@@ -0,0 +1,88 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.utils.FixtureHelpers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RestaurantCacheSerializerTest {
+
+  private static final String FIXTURE =
+      "fixtures/exchanges/normal_hours_list_of_restaurants.json";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void everyCodecRoundTrips() throws IOException {
+    List<Restaurant> restaurants = listOfRestaurants();
+    restaurants.get(0).setImageUrl(null);
+
+    for (String codec : Arrays.asList(JsonRestaurantCodec.NAME, BinaryRestaurantCodec.NAME)) {
+      RestaurantCacheSerializer serializer = serializer(codec);
+
+      for (Restaurant restaurant : restaurants) {
+        Restaurant decoded = serializer.deserialize(serializer.serialize(restaurant));
+
+        assertEquals(restaurant.toString(), decoded.toString(), codec);
+      }
+    }
+  }
+
+  @Test
+  void valuesOfAnotherCodecAreReadFromTheirHeader() throws IOException {
+    Restaurant restaurant = listOfRestaurants().get(0);
+    byte[] json = serializer(JsonRestaurantCodec.NAME).serialize(restaurant);
+    byte[] binary = serializer(BinaryRestaurantCodec.NAME).serialize(restaurant);
+
+    RestaurantCacheSerializer serializer = serializer(BinaryRestaurantCodec.NAME);
+
+    assertEquals(restaurant.toString(), serializer.deserialize(json).toString());
+    assertTrue(binary.length < objectMapper.writeValueAsBytes(restaurant).length);
+  }
+
+  @Test
+  void valuesWithoutKnownHeaderAreRejected() throws IOException {
+    RestaurantCacheSerializer serializer = serializer(BinaryRestaurantCodec.NAME);
+    byte[] legacyJson = objectMapper.writeValueAsString(listOfRestaurants())
+        .getBytes(StandardCharsets.UTF_8);
+    byte[] legacyList = {2, 0, 1, 1, 0};
+    byte[] truncated = Arrays.copyOf(serializer.serialize(listOfRestaurants().get(0)), 40);
+
+    assertThrows(IOException.class, () -> serializer.deserialize(legacyJson));
+    assertThrows(IOException.class, () -> serializer.deserialize(legacyList));
+    assertThrows(IOException.class, () -> serializer.deserialize(truncated));
+  }
+
+  private RestaurantCacheSerializer serializer(String codec) {
+    JsonRestaurantCodec jsonCodec = new JsonRestaurantCodec();
+    ReflectionTestUtils.setField(jsonCodec, "objectMapper", objectMapper);
+    RestaurantCacheSerializer serializer = new RestaurantCacheSerializer();
+    ReflectionTestUtils.setField(serializer, "codecName", codec);
+    ReflectionTestUtils.setField(serializer, "codecs",
+        Arrays.asList(jsonCodec, new BinaryRestaurantCodec()));
+    ReflectionTestUtils.invokeMethod(serializer, "init");
+    return serializer;
+  }
+
+  private List<Restaurant> listOfRestaurants() throws IOException {
+    return objectMapper.readValue(FixtureHelpers.fixture(FIXTURE),
+        new TypeReference<List<Restaurant>>() {
+        });
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private static final int CALLERS = 8;
+
+  private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+  @Test
+  void concurrentCallersShareOneLoad() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < CALLERS; i++) {
+        results.add(executor.submit(() -> singleFlight.load("key", () -> {
+          loads.incrementAndGet();
+          await(release);
+          return "value";
+        })));
+      }
+      while (singleFlight.inFlight() == 0) {
+        Thread.sleep(5);
+      }
+      // Give the other callers time to join the running load before it ends.
+      Thread.sleep(100);
+      release.countDown();
+
+      for (Future<String> result : results) {
+        assertEquals("value", result.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, loads.get());
+      assertEquals(0, singleFlight.inFlight());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void failedLoadIsRethrownAndNotRemembered() {
+    assertThrows(IllegalStateException.class, () -> singleFlight.load("key", () -> {
+      throw new IllegalStateException("down");
+    }));
+
+    assertEquals("value", singleFlight.load("key", () -> "value"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
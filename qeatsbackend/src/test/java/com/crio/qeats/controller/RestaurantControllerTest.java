@@ -13,22 +13,27 @@ import static com.crio.qeats.controller.RestaurantController.GET_ORDERS_API;
 import static com.crio.qeats.controller.RestaurantController.MENU_API;
 import static com.crio.qeats.controller.RestaurantController.POST_ORDER_API;
 import static com.crio.qeats.controller.RestaurantController.RESTAURANTS_API;
+import static com.crio.qeats.controller.RestaurantController.RESTAURANTS_ASYNC_API;
 import static com.crio.qeats.controller.RestaurantController.RESTAURANT_API_ENDPOINT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.crio.qeats.QEatsApplication;
 import com.crio.qeats.dto.Cart;
 import com.crio.qeats.dto.Order;
+import com.crio.qeats.dto.Restaurant;
 import com.crio.qeats.exchanges.GetMenuResponse;
 import com.crio.qeats.exchanges.GetRestaurantsRequest;
 import com.crio.qeats.exchanges.GetRestaurantsResponse;
@@ -41,7 +46,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.net.URI;
 import java.time.LocalTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -54,7 +62,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -139,6 +149,31 @@ public class RestaurantControllerTest {
 
   }
 
+  @Test
+  public void streamingModeWritesSameJsonAsListResponse() throws Exception {
+    GetRestaurantsResponse sampleResponse = loadSampleResponseList();
+    assertNotNull(sampleResponse);
+
+    doAnswer(invocation -> {
+      Consumer<Restaurant> consumer = invocation.getArgument(2);
+      sampleResponse.getRestaurants().forEach(consumer);
+      return null;
+    }).when(restaurantService).streamAllRestaurantsCloseBy(any(GetRestaurantsRequest.class),
+        any(LocalTime.class), any());
+    ReflectionTestUtils.setField(restaurantController, "objectMapper", objectMapper);
+    ReflectionTestUtils.setField(restaurantController, "streamRestaurants", true);
+
+    MockHttpServletResponse response = mvc.perform(
+        get(RESTAURANT_API_URI + "?latitude=20.21&longitude=30.31").accept(APPLICATION_JSON_UTF8)
+    ).andReturn().getResponse();
+
+    assertEquals(HttpStatus.OK.value(), response.getStatus());
+    assertEquals(objectMapper.writeValueAsString(sampleResponse),
+        response.getContentAsString());
+    verify(restaurantService, times(0))
+        .findAllRestaurantsCloseBy(any(GetRestaurantsRequest.class), any(LocalTime.class));
+  }
+
   @Test
   public void getRestaurantsBySearchStringAndLatLong() throws Exception {
     // Sample response
@@ -179,6 +214,33 @@ public class RestaurantControllerTest {
 
   }
 
+  @Test
+  public void asyncSearchRespondsOnceTheSearchCompletes() throws Exception {
+    CompletableFuture<GetRestaurantsResponse> search = new CompletableFuture<>();
+    when(restaurantService.findRestaurantsBySearchQueryMt(any(GetRestaurantsRequest.class),
+        any(LocalTime.class))).thenReturn(search);
+
+    MvcResult started = mvc.perform(get(RESTAURANT_API_ENDPOINT + RESTAURANTS_ASYNC_API
+        + "?latitude=20.21&longitude=30.31&searchFor=Briyani").accept(APPLICATION_JSON_UTF8))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    Restaurant restaurant = new Restaurant();
+    restaurant.setRestaurantId("11");
+    search.complete(new GetRestaurantsResponse(Collections.singletonList(restaurant)));
+    MockHttpServletResponse response = mvc.perform(asyncDispatch(started)).andReturn()
+        .getResponse();
+
+    assertEquals(HttpStatus.OK.value(), response.getStatus());
+    assertEquals("11", objectMapper.readValue(response.getContentAsString(),
+        GetRestaurantsResponse.class).getRestaurants().get(0).getRestaurantId());
+
+    MvcResult invalid = mvc.perform(get(RESTAURANT_API_ENDPOINT + RESTAURANTS_ASYNC_API
+        + "?latitude=91&longitude=30.31").accept(APPLICATION_JSON_UTF8)).andReturn();
+    assertEquals(HttpStatus.BAD_REQUEST.value(),
+        mvc.perform(asyncDispatch(invalid)).andReturn().getResponse().getStatus());
+  }
+
   @Test
   public void invalidLatitudeResultsInBadHttpRequest() throws Exception {
     URI uri = UriComponentsBuilder
@@ -0,0 +1,98 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import com.crio.qeats.dto.Cart;
+import com.crio.qeats.dto.Menu;
+import com.crio.qeats.dto.Order;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.models.CartEntity;
+import com.crio.qeats.models.MenuEntity;
+import com.crio.qeats.models.OrderEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.FixtureHelpers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+// The mappers replace ModelMapper, so ModelMapper's output is the expected value.
+class MappersTest {
+
+  private static final String FIXTURES = "fixtures/exchanges";
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  private final ModelMapper modelMapper = new ModelMapper();
+
+  @Test
+  public void restaurantMatchesModelMapper() throws IOException {
+    List<RestaurantEntity> restaurantEntities = objectMapper.readValue(
+        FixtureHelpers.fixture(FIXTURES + "/initial_data_set_restaurants.json"),
+        new TypeReference<List<RestaurantEntity>>() {
+        });
+
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      Restaurant restaurant = RestaurantMapper.toRestaurant(restaurantEntity);
+
+      assertEquals(modelMapper.map(restaurantEntity, Restaurant.class).toString(),
+          restaurant.toString());
+      assertNotSame(restaurantEntity.getAttributes(), restaurant.getAttributes());
+    }
+  }
+
+  @Test
+  public void cartMatchesModelMapperBothWays() throws IOException {
+    List<CartEntity> cartEntities = objectMapper.readValue(
+        FixtureHelpers.fixture(FIXTURES + "/initial_data_set_carts.json"),
+        new TypeReference<List<CartEntity>>() {
+        });
+
+    for (CartEntity cartEntity : cartEntities) {
+      Cart cart = CartMapper.toCart(cartEntity);
+      assertEquals(modelMapper.map(cartEntity, Cart.class), cart);
+
+      CartEntity mappedBack = CartMapper.toCartEntity(cart);
+      assertEquals(modelMapper.map(cart, CartEntity.class), mappedBack);
+      assertNotSame(cart.getItems(), mappedBack.getItems());
+    }
+  }
+
+  @Test
+  public void menuMatchesModelMapper() throws IOException {
+    List<MenuEntity> menuEntities = objectMapper.readValue(
+        FixtureHelpers.fixture(FIXTURES + "/initial_data_set_menus.json"),
+        new TypeReference<List<MenuEntity>>() {
+        });
+
+    for (MenuEntity menuEntity : menuEntities) {
+      assertEquals(modelMapper.map(menuEntity, Menu.class), MenuMapper.toMenu(menuEntity));
+    }
+  }
+
+  @Test
+  public void orderMatchesModelMapper() throws IOException {
+    List<OrderEntity> orderEntities = objectMapper.readValue(
+        FixtureHelpers.fixture(FIXTURES + "/initial_data_set_orders.json"),
+        new TypeReference<List<OrderEntity>>() {
+        });
+
+    for (OrderEntity orderEntity : orderEntities) {
+      orderEntity.setPlacedTime("19:30");
+      Order order = OrderMapper.toOrder(orderEntity);
+
+      assertEquals(modelMapper.map(orderEntity, Order.class), order);
+      assertEquals("19:30", order.getTimePlaced());
+    }
+  }
+}
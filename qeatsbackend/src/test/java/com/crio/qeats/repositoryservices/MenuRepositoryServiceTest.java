@@ -8,8 +8,12 @@ package com.crio.qeats.repositoryservices;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import com.crio.qeats.QEatsApplication;
+import com.crio.qeats.cache.MenuCache;
+import com.crio.qeats.dto.Item;
 import com.crio.qeats.dto.Menu;
 import com.crio.qeats.models.MenuEntity;
 import com.crio.qeats.utils.FixtureHelpers;
@@ -46,6 +50,9 @@ class MenuRepositoryServiceTest {
   @Autowired
   private Provider<ModelMapper> modelMapperProvider;
 
+  @Autowired
+  private MenuCache menuCache;
+
   @BeforeEach
   public void setup() throws IOException {
     menuEntities = listOfMenus();
@@ -58,6 +65,7 @@ class MenuRepositoryServiceTest {
   @AfterEach
   public void teardown() {
     mongoTemplate.dropCollection("menus");
+    menuCache.invalidateAll();
   }
 
   @Test
@@ -78,6 +86,21 @@ class MenuRepositoryServiceTest {
     assertEquals(null, menu);
   }
 
+  @Test
+  public void itemsAreFoundInTheCachedMenuUntilItIsInvalidated() {
+    assertEquals("11", menuRepositoryService.findMenu("11").getRestaurantId());
+    mongoTemplate.dropCollection("menus");
+
+    Item item = menuRepositoryService.findItem("1", "11");
+    assertEquals("1", item.getItemId());
+    assertSame(item, menuRepositoryService.findMenu("11").getItems().get(0));
+    assertNull(menuRepositoryService.findItem("2", "11"));
+
+    menuCache.invalidate("11");
+    assertNull(menuRepositoryService.findItem("1", "11"));
+    assertNull(menuRepositoryService.findMenu("11"));
+  }
+
   private List<MenuEntity> listOfMenus() throws IOException {
     String fixture =
         FixtureHelpers.fixture(FIXTURES + "/initial_data_set_menus.json");
@@ -1,35 +1,61 @@
 package com.crio.qeats.repositoryservices;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import ch.hsr.geohash.GeoHash;
 import com.crio.qeats.QEatsApplication;
+import com.crio.qeats.cache.CacheMetrics;
+import com.crio.qeats.cache.LockResult;
+import com.crio.qeats.cache.RedisCache;
+import com.crio.qeats.cache.RedisCacheInvalidationBus;
+import com.crio.qeats.cache.RedisRestaurantCache;
+import com.crio.qeats.cache.RefreshAhead;
+import com.crio.qeats.cache.RestaurantCache;
+import com.crio.qeats.cache.RestaurantNearCache;
 import com.crio.qeats.dto.Restaurant;
-import com.crio.qeats.globals.GlobalConstants;
 import com.crio.qeats.models.RestaurantEntity;
 import com.crio.qeats.repositories.RestaurantRepository;
 import com.crio.qeats.utils.FixtureHelpers;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.io.IOException;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.inject.Provider;
 
 import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 import redis.clients.jedis.Jedis;
 
 @SpringBootTest(classes = {QEatsApplication.class})
@@ -49,9 +75,25 @@ class RestaurantRepositoryServiceCacheTest {
   @MockBean
   private RestaurantRepository mockRestaurantRepository;
 
+  @Autowired
+  private RedisCache redisCache;
+  @Autowired
+  private RestaurantNearCache restaurantNearCache;
+  @Autowired
+  private RestaurantCache restaurantCache;
+  @Autowired
+  private RestaurantCacheWarmer restaurantCacheWarmer;
+  @Autowired
+  private CacheWarmUpHealthIndicator cacheWarmUpHealthIndicator;
+  @Autowired
+  private MeterRegistry meterRegistry;
+  @Autowired
+  private RefreshAhead refreshAhead;
+
   @AfterEach
   void teardown() {
-    GlobalConstants.destroyCache();
+    redisCache.flushAll();
+    restaurantNearCache.invalidateAll();
   }
 
 
@@ -62,22 +104,251 @@ class RestaurantRepositoryServiceCacheTest {
 
     when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
 
-    Jedis jedis = GlobalConstants.getJedisPool().getResource();
-
     // call it twice
     List<Restaurant> allRestaurantsCloseBy = restaurantRepositoryService
         .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
     allRestaurantsCloseBy = restaurantRepositoryService
         .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
-    GeoHash geoHash = GeoHash.withCharacterPrecision(20.0, 30.0, 7);
+    String key = RestaurantRepositoryServiceImpl.cacheKey(20.0, 30.0, 3.0);
 
     verify(mockRestaurantRepository, times(1)).findAll();
-    assertNotNull(jedis.get(geoHash.toBase32()));
+    assertNotNull(restaurantCache.get(key));
+    try (Jedis jedis = redisCache.openDedicatedConnection()) {
+      long ttl = jedis.ttl(RedisRestaurantCache.CELL_KEY_PREFIX + key);
+      assertTrue(ttl > 0 && ttl <= redisCache.getTtlInSeconds());
+    }
     assertEquals(2, allRestaurantsCloseBy.size());
     assertEquals("11", allRestaurantsCloseBy.get(0).getRestaurantId());
     assertEquals("12", allRestaurantsCloseBy.get(1).getRestaurantId());
   }
 
+  @Test
+  void nearCacheServesRepeatsUntilAnotherNodeInvalidates() throws Exception {
+    when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
+    String key = RestaurantRepositoryServiceImpl.cacheKey(20.0, 30.0, 3.0);
+    double l1Hits = cacheGets(CacheMetrics.L1, "hit");
+    double l2Hits = cacheGets(CacheMetrics.L2, "hit");
+
+    restaurantRepositoryService.findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+    restaurantRepositoryService.findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+    assertEquals(l1Hits + 1, cacheGets(CacheMetrics.L1, "hit"));
+    assertEquals(l2Hits, cacheGets(CacheMetrics.L2, "hit"));
+    assertNotNull(restaurantNearCache.get(key));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (restaurantNearCache.get(key) != null && System.currentTimeMillis() < deadline) {
+      redisCache.publish(RedisCacheInvalidationBus.CHANNEL, "another-node " + key);
+      Thread.sleep(50);
+    }
+
+    List<Restaurant> allRestaurantsCloseBy = restaurantRepositoryService
+        .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+    verify(mockRestaurantRepository, times(1)).findAll();
+    assertEquals(l2Hits + 1, cacheGets(CacheMetrics.L2, "hit"));
+    assertEquals(2, allRestaurantsCloseBy.size());
+  }
+
+  @Test
+  void cachedCandidatesAreFilteredByTimeAndLocationOfEachRequest() throws IOException {
+    when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
+
+    assertEquals(Arrays.asList("11", "12"), restaurantIdsCloseBy(20.0, 30.0, 18, 3.0));
+    assertEquals(Arrays.asList(), restaurantIdsCloseBy(20.0, 30.0, 17, 3.0));
+    // Same cell, but restaurant 10 is 2.99 km away instead of 3.002 km.
+    assertEquals(RestaurantRepositoryServiceImpl.cacheKey(20.0, 30.0, 3.0),
+        RestaurantRepositoryServiceImpl.cacheKey(20.0001, 30.0, 3.0));
+    assertEquals(Arrays.asList("10", "11", "12"), restaurantIdsCloseBy(20.0001, 30.0, 18, 3.0));
+    assertEquals(Arrays.asList("10", "11", "12"), restaurantIdsCloseBy(20.0, 30.0, 18, 5.0));
+
+    verify(mockRestaurantRepository, times(2)).findAll();
+  }
+
+  @Test
+  void neighbouringCellsShareOneCopyOfEachRestaurant() throws IOException {
+    when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
+    assertNotEquals(RestaurantRepositoryServiceImpl.cacheKey(20.0, 30.0, 3.0),
+        RestaurantRepositoryServiceImpl.cacheKey(20.002, 30.0, 3.0));
+
+    restaurantRepositoryService.findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+    restaurantRepositoryService.findAllRestaurantsCloseBy(20.002, 30.0, LocalTime.of(18, 1), 3.0);
+    Restaurant renamed = restaurantCache
+        .get(RestaurantRepositoryServiceImpl.cacheKey(20.0, 30.0, 3.0)).get(1);
+    assertEquals("11", renamed.getRestaurantId());
+    renamed.setName("Renamed");
+    restaurantCache.update(renamed);
+    restaurantNearCache.invalidateAll();
+
+    try (Jedis jedis = redisCache.openDedicatedConnection()) {
+      assertEquals(3, jedis.keys(RedisRestaurantCache.RESTAURANT_KEY_PREFIX + "*").size());
+      long ttl = jedis.ttl(RedisRestaurantCache.RESTAURANT_KEY_PREFIX + "11");
+      assertTrue(ttl > 0 && ttl <= redisCache.getTtlInSeconds());
+    }
+    for (double latitude : new double[]{20.0, 20.002}) {
+      List<Restaurant> restaurants = restaurantRepositoryService
+          .findAllRestaurantsCloseBy(latitude, 30.0, LocalTime.of(18, 1), 3.0);
+      assertEquals("Renamed", restaurants.stream()
+          .filter(restaurant -> restaurant.getRestaurantId().equals("11"))
+          .findFirst().get().getName());
+    }
+    verify(mockRestaurantRepository, times(2)).findAll();
+  }
+
+  @Test
+  void warmUpCachesEveryCellHoldingARestaurant() throws IOException {
+    List<RestaurantEntity> restaurantEntities = listOfRestaurants();
+    when(mockRestaurantRepository.findAll()).thenReturn(restaurantEntities);
+    ReflectionTestUtils.setField(restaurantCacheWarmer, "enabled", true);
+    try {
+      assertEquals(Status.OUT_OF_SERVICE, cacheWarmUpHealthIndicator.health().getStatus());
+
+      restaurantCacheWarmer.warmUp();
+
+      assertEquals(Status.UP, cacheWarmUpHealthIndicator.health().getStatus());
+    } finally {
+      ReflectionTestUtils.setField(restaurantCacheWarmer, "enabled", false);
+    }
+    Map<String, Object> progress = restaurantCacheWarmer.progress();
+    assertEquals(RestaurantCacheWarmer.State.DONE, progress.get("state"));
+    assertEquals(progress.get("cellsTotal"), progress.get("cellsWarmed"));
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      for (double radiusInKms : new double[]{3.0, 5.0}) {
+        assertNotNull(restaurantCache.get(RestaurantRepositoryServiceImpl.cacheKey(
+            restaurantEntity.getLatitude(), restaurantEntity.getLongitude(), radiusInKms)));
+      }
+    }
+
+    assertFalse(restaurantRepositoryService
+        .findAllRestaurantsCloseBy(20.0269, 30.0, LocalTime.of(18, 1), 3.0).isEmpty());
+    verify(mockRestaurantRepository, times(1)).findAll();
+  }
+
+  @Test
+  void entriesReadCloseToExpiryAreRefreshedInTheBackground() throws IOException {
+    when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
+    String key = RestaurantRepositoryServiceImpl.cacheKey(20.0, 30.0, 3.0);
+    restaurantRepositoryService.findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+    restaurantNearCache.invalidateAll();
+    // Every cached entry is within a window longer than the TTL.
+    ReflectionTestUtils.setField(refreshAhead, "windowInSeconds",
+        (long) redisCache.getTtlInSeconds());
+    try {
+      List<Restaurant> allRestaurantsCloseBy = restaurantRepositoryService
+          .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+
+      assertEquals(2, allRestaurantsCloseBy.size());
+      verify(mockRestaurantRepository, timeout(5000).times(2)).findAll();
+    } finally {
+      ReflectionTestUtils.setField(refreshAhead, "windowInSeconds", 300L);
+    }
+    assertNotNull(restaurantCache.get(key));
+  }
+
+  @Test
+  void areasWithoutRestaurantsAreCachedBrieflyOrAnsweredFromTheEmptyRegionBitmap()
+      throws IOException {
+    when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
+    String key = RestaurantRepositoryServiceImpl.cacheKey(25.0, 40.0, 3.0);
+
+    assertEquals(0, restaurantRepositoryService
+        .findAllRestaurantsCloseBy(25.0, 40.0, LocalTime.of(18, 1), 3.0).size());
+    try (Jedis jedis = redisCache.openDedicatedConnection()) {
+      long ttl = jedis.ttl(RedisRestaurantCache.CELL_KEY_PREFIX + key);
+      assertTrue(ttl > 0 && ttl <= 300);
+    }
+    assertEquals(0, restaurantCache.get(key).size());
+
+    RestaurantRepositoryServiceImpl repositoryServiceImpl =
+        (RestaurantRepositoryServiceImpl) restaurantRepositoryService;
+    ReflectionTestUtils.setField(repositoryServiceImpl, "emptyRegionsEnabled", true);
+    try {
+      repositoryServiceImpl.buildEmptyRegionIndex();
+      redisCache.flushAll();
+      restaurantNearCache.invalidateAll();
+
+      assertEquals(0, restaurantRepositoryService
+          .findAllRestaurantsCloseBy(25.0, 40.0, LocalTime.of(18, 1), 3.0).size());
+      assertEquals(2, restaurantRepositoryService
+          .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0).size());
+    } finally {
+      ReflectionTestUtils.setField(repositoryServiceImpl, "emptyRegionsEnabled", false);
+      ReflectionTestUtils.setField(repositoryServiceImpl, "emptyRegionIndex", null);
+    }
+    assertNull(restaurantCache.get(key));
+    verify(mockRestaurantRepository, times(3)).findAll();
+  }
+
+  @Test
+  void concurrentMissesRunOneDatabaseQuery() throws Exception {
+    List<RestaurantEntity> restaurantEntities = listOfRestaurants();
+    when(mockRestaurantRepository.findAll()).thenAnswer(invocation -> {
+      Thread.sleep(200);
+      return restaurantEntities;
+    });
+    int callers = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    try {
+      List<Future<List<Restaurant>>> results = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return restaurantRepositoryService
+              .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+        }));
+      }
+      start.countDown();
+
+      for (Future<List<Restaurant>> result : results) {
+        assertEquals(2, result.get(10, TimeUnit.SECONDS).size());
+      }
+      verify(mockRestaurantRepository, times(1)).findAll();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void missesGoStraightToTheDatabaseWhenTheLockCannotBeAskedFor() throws IOException {
+    when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
+    RestaurantCache failingCache = mock(RestaurantCache.class);
+    when(failingCache.isAvailable()).thenReturn(true);
+    when(failingCache.get(anyString())).thenReturn(null);
+    when(failingCache.tryLock(anyString(), anyString(), anyLong())).thenReturn(LockResult.FAILED);
+    RestaurantRepositoryServiceImpl repositoryServiceImpl =
+        (RestaurantRepositoryServiceImpl) restaurantRepositoryService;
+    ReflectionTestUtils.setField(repositoryServiceImpl, "restaurantCache", failingCache);
+    ReflectionTestUtils.setField(repositoryServiceImpl, "cacheLockEnabled", true);
+    try {
+      long start = System.nanoTime();
+      List<Restaurant> allRestaurantsCloseBy = restaurantRepositoryService
+          .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+      assertEquals(2, allRestaurantsCloseBy.size());
+      verify(mockRestaurantRepository, times(1)).findAll();
+      // Read once on the miss and once before locking, never polled.
+      verify(failingCache, times(1)).getWithTimeToLive(anyString());
+      verify(failingCache, times(1)).get(anyString());
+      verify(failingCache, never()).unlock(anyString(), anyString());
+    } finally {
+      ReflectionTestUtils.setField(repositoryServiceImpl, "restaurantCache", restaurantCache);
+      ReflectionTestUtils.setField(repositoryServiceImpl, "cacheLockEnabled", false);
+    }
+  }
+
+  private List<String> restaurantIdsCloseBy(double latitude, double longitude, int hour,
+      double servingRadiusInKms) {
+    return restaurantRepositoryService.findAllRestaurantsCloseBy(latitude, longitude,
+        LocalTime.of(hour, 1), servingRadiusInKms).stream()
+        .map(Restaurant::getRestaurantId)
+        .collect(Collectors.toList());
+  }
+
+  private double cacheGets(String tier, String result) {
+    return meterRegistry.get("qeats.cache.gets").tag("tier", tier).tag("result", result)
+        .counter().count();
+  }
+
   private List<RestaurantEntity> listOfRestaurants() throws IOException {
     String fixture =
         FixtureHelpers.fixture(FIXTURES + "/initial_data_set_restaurants.json");
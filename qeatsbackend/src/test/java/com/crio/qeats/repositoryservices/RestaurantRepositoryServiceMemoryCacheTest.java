@@ -0,0 +1,111 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.repositoryservices;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crio.qeats.QEatsApplication;
+import com.crio.qeats.cache.CacheInvalidationBus;
+import com.crio.qeats.cache.InMemoryRestaurantCache;
+import com.crio.qeats.cache.LocalCacheInvalidationBus;
+import com.crio.qeats.cache.RestaurantCache;
+import com.crio.qeats.cache.RestaurantNearCache;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.GetRestaurantsRequest;
+import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.repositories.RestaurantRepository;
+import com.crio.qeats.services.RestaurantService;
+import com.crio.qeats.utils.FixtureHelpers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.LocalTime;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+@SpringBootTest(classes = {QEatsApplication.class}, properties = {"qeats.cache.backend=memory"})
+class RestaurantRepositoryServiceMemoryCacheTest {
+
+  private static final String FIXTURES = "fixtures/exchanges";
+
+  @Autowired
+  private RestaurantRepositoryService restaurantRepositoryService;
+  @Autowired
+  private ObjectMapper objectMapper;
+  @Autowired
+  private RestaurantCache restaurantCache;
+  @Autowired
+  private RestaurantNearCache restaurantNearCache;
+  @Autowired
+  private CacheInvalidationBus cacheInvalidationBus;
+  @Autowired
+  private RestaurantService restaurantService;
+
+  @MockBean
+  private RestaurantRepository mockRestaurantRepository;
+
+  @AfterEach
+  void teardown() {
+    ((InMemoryRestaurantCache) restaurantCache).invalidateAll();
+    restaurantNearCache.invalidateAll();
+  }
+
+  @Test
+  void restaurantsCloseByAreCachedInProcess() throws IOException {
+    when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
+    assertTrue(restaurantCache instanceof InMemoryRestaurantCache);
+    assertTrue(cacheInvalidationBus instanceof LocalCacheInvalidationBus);
+
+    restaurantRepositoryService.findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+    restaurantNearCache.invalidateAll();
+    List<Restaurant> allRestaurantsCloseBy = restaurantRepositoryService
+        .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+
+    verify(mockRestaurantRepository, times(1)).findAll();
+    assertNotNull(restaurantCache.get(RestaurantRepositoryServiceImpl.cacheKey(20.0, 30.0, 3.0)));
+    assertEquals(2, allRestaurantsCloseBy.size());
+  }
+
+  @Test
+  void paginatedListingPagesThroughTheCachedRestaurants() throws IOException {
+    when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
+
+    GetRestaurantsRequest firstRequest = new GetRestaurantsRequest(20.0, 30.0);
+    firstRequest.setLimit(1);
+    GetRestaurantsResponse firstPage =
+        restaurantService.findAllRestaurantsCloseBy(firstRequest, LocalTime.of(19, 0));
+    GetRestaurantsRequest secondRequest = new GetRestaurantsRequest(20.0, 30.0);
+    secondRequest.setLimit(1);
+    secondRequest.setCursor(firstPage.getNextCursor());
+    GetRestaurantsResponse secondPage =
+        restaurantService.findAllRestaurantsCloseBy(secondRequest, LocalTime.of(19, 0));
+
+    verify(mockRestaurantRepository, times(1)).findAll();
+    assertEquals(1, firstPage.getRestaurants().size());
+    assertEquals(1, secondPage.getRestaurants().size());
+    assertTrue(firstPage.getRestaurants().get(0).getDistanceInKms()
+        <= secondPage.getRestaurants().get(0).getDistanceInKms());
+  }
+
+  private List<RestaurantEntity> listOfRestaurants() throws IOException {
+    String fixture =
+        FixtureHelpers.fixture(FIXTURES + "/initial_data_set_restaurants.json");
+
+    return objectMapper.readValue(fixture, new TypeReference<List<RestaurantEntity>>() {
+    });
+  }
+}
@@ -8,26 +8,42 @@ package com.crio.qeats.repositoryservices;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.crio.qeats.QEatsApplication;
+import com.crio.qeats.cache.RedisCache;
+import com.crio.qeats.cache.RestaurantNearCache;
 import com.crio.qeats.dto.Restaurant;
-import com.crio.qeats.globals.GlobalConstants;
+import com.crio.qeats.models.MenuEntity;
 import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.repositories.RestaurantRepository;
 import com.crio.qeats.utils.FixtureHelpers;
+import com.crio.qeats.utils.GeoUtils;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import javax.inject.Provider;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Point;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.Sphere;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
 
 // COMPLETED: CRIO_TASK_MODULE_NOSQL
 // Pass all the RestaurantRepositoryService test cases.
@@ -45,6 +61,12 @@ public class RestaurantRepositoryServiceTest {
   private ObjectMapper objectMapper;
   @Autowired
   private Provider<ModelMapper> modelMapperProvider;
+  @Autowired
+  private RestaurantRepository restaurantRepository;
+  @Autowired
+  private RedisCache redisCache;
+  @Autowired
+  private RestaurantNearCache restaurantNearCache;
 
   @BeforeEach
   void setup() throws IOException {
@@ -58,7 +80,8 @@ public class RestaurantRepositoryServiceTest {
   @AfterEach
   void teardown() {
     mongoTemplate.dropCollection("restaurants");
-    GlobalConstants.destroyCache();
+    redisCache.flushAll();
+    restaurantNearCache.invalidateAll();
   }
 
   @Test
@@ -87,6 +110,25 @@ public class RestaurantRepositoryServiceTest {
     assertEquals(0, allRestaurantsCloseBy.size());
   }
 
+  @Test
+  void streamingReturnsOpenRestaurantsWithinRadius() {
+    LocalTime currentTime = LocalTime.of(18, 1);
+    for (double radius : new double[]{3.0, 5.0, 50.0}) {
+      List<String> expected = allRestaurants.stream()
+          .filter(r -> r.isOpen(currentTime))
+          .filter(r -> GeoUtils.findDistanceInKm(20.0, 30.0, r.getLatitude(),
+              r.getLongitude()) < radius)
+          .map(RestaurantEntity::getRestaurantId)
+          .collect(Collectors.toList());
+
+      List<String> streamed = new ArrayList<>();
+      restaurantRepositoryService.streamAllRestaurantsCloseBy(20.0, 30.0, currentTime, radius,
+          restaurant -> streamed.add(restaurant.getRestaurantId()));
+
+      assertEquals(expected, streamed);
+    }
+  }
+
   @Test
   void tooEarlyNoRestaurantIsOpen(@Autowired MongoTemplate mongoTemplate) {
     assertNotNull(mongoTemplate);
@@ -139,6 +181,161 @@ public class RestaurantRepositoryServiceTest {
     assertEquals("A2B Adyar Ananda Bhavan", foundRestaurantsList.get(1).getName());
   }
 
+  @Test
+  void nameAndAttributeSearchesTakeTheQueryLiterally() {
+    LocalTime currentTime = LocalTime.of(20, 0);
+
+    assertEquals(2, restaurantRepositoryService
+        .findRestaurantsByAttributes(20.8, 30.1, "south indian", currentTime, 5.0).size());
+    assertEquals(0, restaurantRepositoryService
+        .findRestaurantsByName(20.8, 30.1, "A2B.*", currentTime, 5.0).size());
+    assertEquals(0, restaurantRepositoryService
+        .findRestaurantsByName(20.8, 30.1, "A2B (", currentTime, 5.0).size());
+    assertEquals(0, restaurantRepositoryService
+        .findRestaurantsByAttributes(20.8, 30.1, ".*", currentTime, 5.0).size());
+  }
+
+  @Test
+  void searchQueriesStopAfterTheSearchTimeout() {
+    MongoTemplate spiedTemplate = spy(mongoTemplate);
+    ReflectionTestUtils.setField(restaurantRepositoryService, "mongoTemplate", spiedTemplate);
+    try {
+      LocalTime currentTime = LocalTime.of(20, 0);
+      restaurantRepositoryService.findRestaurantsByName(20.8, 30.1, "A2B", currentTime, 5.0);
+      restaurantRepositoryService
+          .findRestaurantsByItemName(20.8, 30.1, "briyani", currentTime, 5.0);
+    } finally {
+      ReflectionTestUtils.setField(restaurantRepositoryService, "mongoTemplate", mongoTemplate);
+    }
+
+    ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+    verify(spiedTemplate, times(2)).find(queries.capture(), eq(RestaurantEntity.class));
+    verify(spiedTemplate, times(2)).find(queries.capture(), eq(MenuEntity.class));
+    Object searchTimeout =
+        ReflectionTestUtils.getField(restaurantRepositoryService, "searchTimeoutInMillis");
+    for (Query query : queries.getAllValues()) {
+      assertEquals(searchTimeout, query.getMeta().getMaxTimeMsec());
+    }
+  }
+
+  @Test
+  void geoWithinQueryMatchesHaversineScan() {
+    double[][] locations = {{20.0, 30.0}, {20.8, 30.1}, {20.9, 30.0}, {20.4, 30.05}};
+    double[] radii = {3.0, 5.0, 50.0};
+
+    for (double[] location : locations) {
+      for (double radius : radii) {
+        List<String> expected = allRestaurants.stream()
+            .filter(r -> GeoUtils.findDistanceInKm(location[0], location[1], r.getLatitude(),
+                r.getLongitude()) < radius)
+            .map(RestaurantEntity::getRestaurantId)
+            .sorted()
+            .collect(Collectors.toList());
+
+        List<String> actual = restaurantRepository.findByLocationWithin(
+            new Sphere(new Point(location[1], location[0]),
+                new Distance(radius / GeoUtils.EARTH_RADIUS_IN_KMS)))
+            .stream()
+            .map(RestaurantEntity::getRestaurantId)
+            .sorted()
+            .collect(Collectors.toList());
+
+        assertEquals(expected, actual);
+      }
+    }
+  }
+
+  @Test
+  void searchIndexAnswersEveryCategoryFromMemory(
+      @Autowired RestaurantSearchIndex restaurantSearchIndex) throws IOException {
+    for (MenuEntity menuEntity : listOfMenus()) {
+      mongoTemplate.save(menuEntity, "menus");
+    }
+    ReflectionTestUtils.setField(restaurantSearchIndex, "enabled", true);
+    try {
+      restaurantSearchIndex.build();
+      mongoTemplate.dropCollection("restaurants");
+
+      List<Restaurant> byName = restaurantRepositoryService.findRestaurantsByName(20.8, 30.1,
+          "a2b", LocalTime.of(20, 0), 5.0);
+      assertEquals(Arrays.asList("A2B", "A2B Adyar Ananda Bhavan"),
+          byName.stream().map(Restaurant::getName).collect(Collectors.toList()));
+
+      LocalTime currentTime = LocalTime.of(18, 1);
+      assertEquals(Arrays.asList("11", "12"), restaurantIds(restaurantRepositoryService
+          .findRestaurantsByAttributes(20.0, 30.0, "south", currentTime, 3.0)));
+      assertEquals(Arrays.asList("11", "12"), restaurantIds(restaurantRepositoryService
+          .findRestaurantsByItemName(20.0, 30.0, "BRIYANI", currentTime, 3.0)));
+      assertEquals(Arrays.asList("11", "12"), restaurantIds(restaurantRepositoryService
+          .findRestaurantsByItemAttributes(20.0, 30.0, "mughal", currentTime, 3.0)));
+    } finally {
+      ReflectionTestUtils.setField(restaurantSearchIndex, "enabled", false);
+      ReflectionTestUtils.setField(restaurantSearchIndex, "snapshot", null);
+      mongoTemplate.dropCollection("menus");
+    }
+  }
+
+  @Test
+  void itemSearchesListExactItemNamesFirst() throws IOException {
+    List<MenuEntity> menuEntities = listOfMenus();
+    for (MenuEntity menuEntity : menuEntities) {
+      mongoTemplate.save(menuEntity, "menus");
+    }
+    try {
+      LocalTime currentTime = LocalTime.of(18, 1);
+      assertEquals(Arrays.asList("11", "12"), restaurantIds(restaurantRepositoryService
+          .findRestaurantsByItemName(20.0, 30.0, "briyani", currentTime, 3.0)));
+      assertEquals(Arrays.asList("11", "12"), restaurantIds(restaurantRepositoryService
+          .findRestaurantsByItemAttributes(20.0, 30.0, "MUGHAL", currentTime, 3.0)));
+
+      MenuEntity fishBriyani = menuEntities.get(1);
+      fishBriyani.getItems().get(0).setName("Briyani");
+      mongoTemplate.save(fishBriyani, "menus");
+      assertEquals(Arrays.asList("12", "11"), restaurantIds(restaurantRepositoryService
+          .findRestaurantsByItemName(20.0, 30.0, "briyani", currentTime, 3.0)));
+      assertEquals(0, restaurantRepositoryService
+          .findRestaurantsByItemName(20.0, 30.0, "briyani.*", currentTime, 3.0).size());
+    } finally {
+      mongoTemplate.dropCollection("menus");
+    }
+  }
+
+  @Test
+  void combinedSearchListsEachRestaurantOnceInItsBestCategory() throws IOException {
+    for (RestaurantEntity restaurantEntity : allRestaurants) {
+      if (restaurantEntity.getRestaurantId().equals("12")) {
+        restaurantEntity.setName("Tamil Mess");
+        mongoTemplate.save(restaurantEntity, "restaurants");
+      }
+    }
+    List<MenuEntity> menuEntities = listOfMenus();
+    menuEntities.get(0).getItems().get(0).setName("Briyani");
+    for (MenuEntity menuEntity : menuEntities) {
+      mongoTemplate.save(menuEntity, "menus");
+    }
+    try {
+      LocalTime currentTime = LocalTime.of(18, 1);
+      // Partial name before cuisine.
+      assertEquals(Arrays.asList("12", "11"), restaurantIds(restaurantRepositoryService
+          .findRestaurantsBySearchQuery(20.0, 30.0, "TAMIL", currentTime, 3.0)));
+      // Exact item name before partial item name.
+      assertEquals(Arrays.asList("11", "12"), restaurantIds(restaurantRepositoryService
+          .findRestaurantsBySearchQuery(20.0, 30.0, "briyani", currentTime, 3.0)));
+      assertEquals(Arrays.asList("11", "12"), restaurantIds(restaurantRepositoryService
+          .findRestaurantsBySearchQuery(20.0, 30.0, "mughal", currentTime, 3.0)));
+      assertEquals(Arrays.asList("11"), restaurantIds(restaurantRepositoryService
+          .findRestaurantsBySearchQuery(20.0, 30.0, "a2b", currentTime, 3.0)));
+      assertEquals(0, restaurantRepositoryService
+          .findRestaurantsBySearchQuery(20.0, 30.0, "pizza", currentTime, 3.0).size());
+    } finally {
+      mongoTemplate.dropCollection("menus");
+    }
+  }
+
+  private static List<String> restaurantIds(List<Restaurant> restaurants) {
+    return restaurants.stream().map(Restaurant::getRestaurantId).collect(Collectors.toList());
+  }
+
   void searchedAttributesIsSubsetOfRetrievedRestaurantAttributes() {
     // TODO
   }
@@ -154,4 +351,12 @@ public class RestaurantRepositoryServiceTest {
     return objectMapper.readValue(fixture, new TypeReference<List<RestaurantEntity>>() {
     });
   }
+
+  private List<MenuEntity> listOfMenus() throws IOException {
+    String fixture =
+        FixtureHelpers.fixture(FIXTURES + "/initial_data_set_menus.json");
+
+    return objectMapper.readValue(fixture, new TypeReference<List<MenuEntity>>() {
+    });
+  }
 }
@@ -88,13 +88,13 @@ class MenuServiceTest {
   void getItemReturnsItemMatchingItemId() throws IOException {
     Menu expectedMenu = loadMenu();
 
-    when(menuRepositoryServiceMock.findMenu("11")).thenReturn(expectedMenu);
+    when(menuRepositoryServiceMock.findItem("1", "11")).thenReturn(expectedMenu.getItems().get(0));
 
     Item item = menuService.findItem("1", "11");
 
     ArgumentCaptor<String> restaurantId = ArgumentCaptor.forClass(String.class);
     verify(menuRepositoryServiceMock, times(1))
-        .findMenu(restaurantId.capture());
+        .findItem(any(String.class), restaurantId.capture());
 
     assertEquals("11", restaurantId.getValue());
     assert (item.getItemId().equals("1"));
@@ -102,23 +102,22 @@ class MenuServiceTest {
 
   @Test
   void getItemReturnsThrowsExceptionWhenItemMatchingTheIdIsNotFound() {
-    Menu emptyMenu = new Menu();
-
-    when(menuRepositoryServiceMock.findMenu(any(String.class))).thenReturn(emptyMenu);
+    when(menuRepositoryServiceMock.findItem(any(String.class), any(String.class)))
+        .thenReturn(null);
 
     assertThrows(ItemNotFoundInRestaurantMenuException.class, () -> menuService
         .findItem("1", "10"));
 
     ArgumentCaptor<String> restaurantId = ArgumentCaptor.forClass(String.class);
     verify(menuRepositoryServiceMock, times(1))
-        .findMenu(restaurantId.capture());
+        .findItem(any(String.class), restaurantId.capture());
     assertEquals("10", restaurantId.getValue());
   }
 
   @Test
   void findItemTest() throws IOException {
     Menu menu = loadMenu();
-    when(menuRepositoryServiceMock.findMenu("11")).thenReturn(menu);
+    when(menuRepositoryServiceMock.findItem("1", "11")).thenReturn(menu.getItems().get(0));
 
     Item item = menuService.findItem("1", "11");
 
@@ -129,7 +128,8 @@ class MenuServiceTest {
   void findItemThrowsItemNotFoundExceptionWhenItemIsNotFoundInRestaurant()
       throws IOException {
     Menu menu = loadMenu();
-    when(menuRepositoryServiceMock.findMenu("11")).thenReturn(menu);
+    when(menuRepositoryServiceMock.findItem("1", "11")).thenReturn(menu.getItems().get(0));
+    when(menuRepositoryServiceMock.findItem("2", "11")).thenReturn(null);
 
     Item item = menuService.findItem("1", "11");
 
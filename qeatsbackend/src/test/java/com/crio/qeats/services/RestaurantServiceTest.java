@@ -8,6 +8,8 @@ package com.crio.qeats.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -24,7 +26,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,8 +45,11 @@ import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.util.ReflectionTestUtils;
 
 // TODO: CRIO_TASK_MODULE_RESTAURANTSAPI - Pass all the RestaurantService test cases.
 // Contains necessary test cases that check for implementation correctness.
@@ -51,11 +66,16 @@ class RestaurantServiceTest {
   private RestaurantServiceImpl restaurantService;
   @MockBean
   private RestaurantRepositoryService restaurantRepositoryServiceMock;
+  @Autowired
+  @Qualifier("searchExecutor")
+  private Executor searchExecutor;
   private ObjectMapper objectMapper;
 
   @BeforeEach
   void setup() {
     MockitoAnnotations.initMocks(this);
+    ReflectionTestUtils.setField(restaurantService, "searchExecutor", searchExecutor);
+    ReflectionTestUtils.setField(restaurantService, "searchTimeoutInMillis", 2000L);
 
     objectMapper = new ObjectMapper();
   }
@@ -102,6 +122,48 @@ class RestaurantServiceTest {
     assertFalse(false);
   }
 
+  @Test
+  void paginatedListingWalksRestaurantsNearestFirst() {
+    List<Restaurant> restaurants = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      Restaurant restaurant = new Restaurant();
+      restaurant.setRestaurantId(String.valueOf(100 + i));
+      // Pairs of restaurants at the same spot check the tie break on restaurant id.
+      restaurant.setLatitude(20.0 + ((i * 7) % 13) * 0.001);
+      restaurant.setLongitude(30.0);
+      restaurants.add(restaurant);
+    }
+    when(restaurantRepositoryServiceMock.findAllRestaurantsCloseBy(any(Double.class),
+        any(Double.class), any(LocalTime.class), any(Double.class))).thenReturn(restaurants);
+
+    List<String> expected = restaurants.stream()
+        .sorted(Comparator.comparingDouble(Restaurant::getLatitude)
+            .thenComparing(Restaurant::getRestaurantId))
+        .map(Restaurant::getRestaurantId)
+        .collect(Collectors.toList());
+
+    List<String> paged = new ArrayList<>();
+    List<Integer> pageSizes = new ArrayList<>();
+    String cursor = null;
+    do {
+      GetRestaurantsRequest getRestaurantsRequest = new GetRestaurantsRequest(20.0, 30.0);
+      getRestaurantsRequest.setLimit(10);
+      getRestaurantsRequest.setCursor(cursor);
+      GetRestaurantsResponse page = restaurantService
+          .findAllRestaurantsCloseBy(getRestaurantsRequest, LocalTime.of(11, 0));
+
+      pageSizes.add(page.getRestaurants().size());
+      page.getRestaurants().forEach(restaurant -> {
+        assertNotNull(restaurant.getDistanceInKms());
+        paged.add(restaurant.getRestaurantId());
+      });
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+
+    assertEquals(Arrays.asList(10, 10, 5), pageSizes);
+    assertEquals(expected, paged);
+  }
+
   @Test
   void normalHourFindRestaurantsSearchQuery() throws IOException {
     when(restaurantRepositoryServiceMock.findRestaurantsByName(any(Double.class),
@@ -182,6 +244,152 @@ class RestaurantServiceTest {
     assertEquals(servingRadiusInKms.getValue().toString(), "3.0");
   }
 
+  @Test
+  void searchCategoriesRunInParallel() {
+    CountDownLatch started = new CountDownLatch(4);
+    when(restaurantRepositoryServiceMock.findRestaurantsByName(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenAnswer(invocation -> awaitOthers(started, "1"));
+    when(restaurantRepositoryServiceMock.findRestaurantsByAttributes(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenAnswer(invocation -> awaitOthers(started, "2"));
+    when(restaurantRepositoryServiceMock.findRestaurantsByItemName(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenAnswer(invocation -> awaitOthers(started, "3"));
+    when(restaurantRepositoryServiceMock.findRestaurantsByItemAttributes(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenAnswer(invocation -> awaitOthers(started, "4"));
+
+    GetRestaurantsRequest getRestaurantsRequest = new GetRestaurantsRequest(20.0, 30.0);
+    getRestaurantsRequest.setSearchFor("Test");
+    GetRestaurantsResponse searchResults = restaurantService
+        .findRestaurantsBySearchQuery(getRestaurantsRequest, LocalTime.of(22, 0));
+
+    assertEquals(Arrays.asList("1", "2", "3", "4"), searchResults.getRestaurants().stream()
+        .map(Restaurant::getRestaurantId).collect(Collectors.toList()));
+  }
+
+  @Test
+  void slowSearchCategoriesAreLeftOutAtTheDeadline() throws IOException {
+    ReflectionTestUtils.setField(restaurantService, "searchTimeoutInMillis", 200L);
+    CountDownLatch release = new CountDownLatch(1);
+    when(restaurantRepositoryServiceMock.findRestaurantsByName(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenReturn(loadRestaurantsDuringPeakHours());
+    when(restaurantRepositoryServiceMock.findRestaurantsByAttributes(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenAnswer(invocation -> {
+          release.await(5, TimeUnit.SECONDS);
+          return loadRestaurantsSearchedByAttributes();
+        });
+    when(restaurantRepositoryServiceMock.findRestaurantsByItemAttributes(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenReturn(Collections.singletonList(restaurantWithId("42")));
+
+    GetRestaurantsRequest getRestaurantsRequest = new GetRestaurantsRequest(20.0, 30.0);
+    getRestaurantsRequest.setSearchFor("Test");
+    long start = System.nanoTime();
+    GetRestaurantsResponse searchResults;
+    try {
+      searchResults = restaurantService
+          .findRestaurantsBySearchQuery(getRestaurantsRequest, LocalTime.of(20, 0));
+    } finally {
+      release.countDown();
+    }
+
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    assertEquals(Arrays.asList("11", "12", "42"), searchResults.getRestaurants().stream()
+        .map(Restaurant::getRestaurantId).collect(Collectors.toList()));
+  }
+
+  @Test
+  void asyncSearchReturnsBeforeTheCategoriesAnswer() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    when(restaurantRepositoryServiceMock.findRestaurantsByName(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenAnswer(invocation -> {
+          release.await(5, TimeUnit.SECONDS);
+          return loadRestaurantsDuringPeakHours();
+        });
+
+    GetRestaurantsRequest getRestaurantsRequest = new GetRestaurantsRequest(20.0, 30.0);
+    getRestaurantsRequest.setSearchFor("Test");
+    CompletableFuture<GetRestaurantsResponse> search = restaurantService
+        .findRestaurantsBySearchQueryMt(getRestaurantsRequest, LocalTime.of(20, 0));
+
+    assertFalse(search.isDone());
+    release.countDown();
+    assertEquals(Arrays.asList("11", "12"), search.get(2, TimeUnit.SECONDS).getRestaurants()
+        .stream().map(Restaurant::getRestaurantId).collect(Collectors.toList()));
+  }
+
+  @Test
+  void restaurantsMatchingSeveralCategoriesAreListedOnce() {
+    when(restaurantRepositoryServiceMock.findRestaurantsByName(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenReturn(Collections.singletonList(restaurantWithId("1")));
+    when(restaurantRepositoryServiceMock.findRestaurantsByAttributes(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenReturn(Collections.singletonList(restaurantWithId("2")));
+    when(restaurantRepositoryServiceMock.findRestaurantsByItemName(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenReturn(Arrays.asList(restaurantWithId("2"), restaurantWithId("1")));
+
+    GetRestaurantsRequest getRestaurantsRequest = new GetRestaurantsRequest(20.0, 30.0);
+    getRestaurantsRequest.setSearchFor("Test");
+    GetRestaurantsResponse searchResults = restaurantService
+        .findRestaurantsBySearchQuery(getRestaurantsRequest, LocalTime.of(22, 0));
+
+    assertEquals(Arrays.asList("1", "2"), searchResults.getRestaurants().stream()
+        .map(Restaurant::getRestaurantId).collect(Collectors.toList()));
+  }
+
+  @Test
+  void asyncListingRejectedByAFullExecutorFailsItsFuture() {
+    ReflectionTestUtils.setField(restaurantService, "searchExecutor", (Executor) command -> {
+      throw new RejectedExecutionException("full");
+    });
+
+    CompletableFuture<GetRestaurantsResponse> listing = restaurantService
+        .findRestaurantsBySearchQueryMt(new GetRestaurantsRequest(20.0, 30.0),
+            LocalTime.of(20, 0));
+
+    assertTrue(listing.isCompletedExceptionally());
+  }
+
+  @Test
+  void combinedSearchAsksTheRepositoryOnce() throws IOException {
+    ReflectionTestUtils.setField(restaurantService, "combinedSearch", true);
+    when(restaurantRepositoryServiceMock.findRestaurantsBySearchQuery(any(Double.class),
+        any(Double.class), any(String.class), any(LocalTime.class), any(Double.class)))
+        .thenReturn(loadRestaurantsDuringPeakHours());
+
+    GetRestaurantsRequest getRestaurantsRequest = new GetRestaurantsRequest(20.0, 30.0);
+    getRestaurantsRequest.setSearchFor("Test");
+    GetRestaurantsResponse searchResults = restaurantService
+        .findRestaurantsBySearchQuery(getRestaurantsRequest, LocalTime.of(20, 0));
+
+    assertEquals(Arrays.asList("11", "12"), searchResults.getRestaurants().stream()
+        .map(Restaurant::getRestaurantId).collect(Collectors.toList()));
+    verify(restaurantRepositoryServiceMock, times(0))
+        .findRestaurantsByName(any(Double.class), any(Double.class), any(String.class),
+            any(LocalTime.class), any(Double.class));
+  }
+
+  private static List<Restaurant> awaitOthers(CountDownLatch started, String restaurantId)
+      throws InterruptedException {
+    started.countDown();
+    return started.await(1, TimeUnit.SECONDS)
+        ? Collections.singletonList(restaurantWithId(restaurantId)) : Collections.emptyList();
+  }
+
+  private static Restaurant restaurantWithId(String restaurantId) {
+    Restaurant restaurant = new Restaurant();
+    restaurant.setRestaurantId(restaurantId);
+    restaurant.setName("Test " + restaurantId);
+    return restaurant;
+  }
+
   @Test
   void findRestaurantsSearchQueryIsEmpty() {
     GetRestaurantsRequest getRestaurantsRequest = new GetRestaurantsRequest(20.0, 30.0);
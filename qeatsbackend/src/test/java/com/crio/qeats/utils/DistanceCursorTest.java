@@ -0,0 +1,44 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class DistanceCursorTest {
+
+  @Test
+  public void encodedCursorDecodesToSamePosition() {
+    DistanceCursor cursor = DistanceCursor.decode(new DistanceCursor(1.2345678901234567,
+        "id:with:colons").encode());
+
+    assertEquals(1.2345678901234567, cursor.getDistanceInKms());
+    assertEquals("id:with:colons", cursor.getRestaurantId());
+  }
+
+  @Test
+  public void restaurantsAfterCursorAreFartherOrHaveGreaterId() {
+    DistanceCursor cursor = new DistanceCursor(2.0, "12");
+
+    assertFalse(cursor.isBefore(1.9, "99"));
+    assertFalse(cursor.isBefore(2.0, "11"));
+    assertFalse(cursor.isBefore(2.0, "12"));
+    assertTrue(cursor.isBefore(2.0, "13"));
+    assertTrue(cursor.isBefore(2.1, "00"));
+  }
+
+  @Test
+  public void malformedCursorIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> DistanceCursor.decode("not base64!"));
+    assertThrows(IllegalArgumentException.class, () -> DistanceCursor.decode("MTIz"));
+    assertThrows(IllegalArgumentException.class, () -> DistanceCursor.decode("YWJjOjEy"));
+  }
+}
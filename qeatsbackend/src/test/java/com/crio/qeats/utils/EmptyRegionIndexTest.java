@@ -0,0 +1,59 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class EmptyRegionIndexTest {
+
+  @Test
+  public void regionsAroundPointsAreNotEmpty() {
+    EmptyRegionIndex index = EmptyRegionIndex.build(Arrays.asList(new GeoLocation(20.0, 30.0)),
+        GeoLocation::getLatitude, GeoLocation::getLongitude);
+
+    assertEquals(9, index.occupiedRegionCount());
+    assertFalse(index.isEmpty(20.0, 30.0, 3.0));
+    assertFalse(index.isEmpty(20.1, 30.2, 3.0));
+    assertTrue(index.isEmpty(21.0, 31.0, 5.0));
+    // Wider than a region, the bitmap cannot tell.
+    assertFalse(index.isEmpty(21.0, 31.0, 100.0));
+  }
+
+  @Test
+  public void emptyAnswersNeverHidePointsWithinTheRadius() {
+    Random random = new Random(42);
+    List<GeoLocation> points = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      points.add(new GeoLocation(60 + random.nextDouble() * 4, 10 + random.nextDouble() * 8));
+    }
+    EmptyRegionIndex index = EmptyRegionIndex.build(points, GeoLocation::getLatitude,
+        GeoLocation::getLongitude);
+
+    int empty = 0;
+    for (int i = 0; i < 20000; i++) {
+      double latitude = 59 + random.nextDouble() * 6;
+      double longitude = 9 + random.nextDouble() * 10;
+      double radius = 1 + random.nextDouble() * 9;
+      if (index.isEmpty(latitude, longitude, radius)) {
+        empty++;
+        for (GeoLocation point : points) {
+          assertTrue(GeoUtils.findDistanceInKm(latitude, longitude, point.getLatitude(),
+              point.getLongitude()) >= radius);
+        }
+      }
+    }
+    assertTrue(empty > 0);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class GeoGridIndexTest {
+
+  @Test
+  public void emptyIndexReturnsNoCandidates() {
+    GeoGridIndex<GeoLocation> index = GeoGridIndex.build(new ArrayList<>(),
+        GeoLocation::getLatitude, GeoLocation::getLongitude);
+
+    assertEquals(0, index.findCandidates(20.0, 30.0, 5.0).size());
+  }
+
+  @Test
+  public void candidatesContainEveryPointWithinRadius() {
+    Random random = new Random(42);
+    List<GeoLocation> points = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      points.add(new GeoLocation(12.9 + random.nextDouble() - 0.5,
+          77.6 + random.nextDouble() - 0.5));
+    }
+    GeoGridIndex<GeoLocation> index = GeoGridIndex.build(points,
+        GeoLocation::getLatitude, GeoLocation::getLongitude);
+
+    for (double radius : new double[]{0.5, 3.0, 5.0, 20.0}) {
+      List<GeoLocation> candidates = index.findCandidates(12.9, 77.6, radius);
+      List<GeoLocation> expected = points.stream()
+          .filter(p -> GeoUtils.findDistanceInKm(12.9, 77.6, p.getLatitude(), p.getLongitude())
+              < radius)
+          .collect(Collectors.toList());
+
+      assertTrue(candidates.containsAll(expected));
+      assertTrue(candidates.size() < points.size());
+    }
+  }
+
+  @Test
+  public void lookupAcrossCellBoundariesAndAntiMeridian() {
+    GeoLocation east = new GeoLocation(0.0, 179.99);
+    GeoLocation west = new GeoLocation(0.0, -179.99);
+    GeoLocation far = new GeoLocation(0.0, 0.0);
+    GeoGridIndex<GeoLocation> index = GeoGridIndex.build(Arrays.asList(east, west, far),
+        GeoLocation::getLatitude, GeoLocation::getLongitude);
+
+    List<GeoLocation> candidates = index.findCandidates(0.0, 180.0, 5.0);
+
+    assertEquals(2, candidates.size());
+    assertTrue(candidates.contains(east));
+    assertTrue(candidates.contains(west));
+  }
+}
@@ -6,8 +6,11 @@
 
 package com.crio.qeats.utils;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Arrays;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 class GeoUtilsTest {
@@ -26,4 +29,59 @@ class GeoUtilsTest {
     assertEquals(3.04, distanceBetweenA2bHsrAndA2bBtm, 0.1);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void batchDistanceMatchesFixtureDistance() {
+    double[] latitudes = {12.9138172, 12.9168585};
+    double[] longitudes = {77.63517, 77.6072902};
+    int[] matches = new int[2];
+
+    int matched = GeoUtils.findWithinRadius(12.9168585, 77.6072902, latitudes, longitudes, 2,
+        3.0, matches);
+    assertEquals(1, matched);
+    assertEquals(1, matches[0]);
+
+    matched = GeoUtils.findWithinRadius(12.9168585, 77.6072902, latitudes, longitudes, 2,
+        3.1, matches);
+    assertEquals(2, matched);
+  }
+
+  @Test
+  public void batchDistanceMatchesHaversineForEveryPoint() {
+    Random random = new Random(7);
+    double[][] sources = {{12.9168585, 77.6072902}, {20.0, 30.0}, {-33.9, 151.2},
+        {69.6, 18.9}, {78.2, 15.6}, {0.0, 179.99}};
+    double[] radii = {0.5, 3.0, 5.0, 25.0, 120.0};
+    int count = 20000;
+    double[] latitudes = new double[count];
+    double[] longitudes = new double[count];
+    int[] matches = new int[count];
+
+    for (double[] source : sources) {
+      for (double radius : radii) {
+        double spread = 3 * radius / 111.0;
+        for (int i = 0; i < count; i++) {
+          latitudes[i] = Math.max(-90, Math.min(90, source[0] + (random.nextDouble() - 0.5)
+              * spread));
+          longitudes[i] = source[1] + (random.nextDouble() - 0.5) * spread * 2;
+          if (longitudes[i] > 180) {
+            longitudes[i] -= 360;
+          }
+        }
+
+        int[] expected = new int[count];
+        int expectedCount = 0;
+        for (int i = 0; i < count; i++) {
+          if (GeoUtils.findDistanceInKm(source[0], source[1], latitudes[i], longitudes[i])
+              < radius) {
+            expected[expectedCount++] = i;
+          }
+        }
+
+        int matched = GeoUtils.findWithinRadius(source[0], source[1], latitudes, longitudes,
+            count, radius, matches);
+        assertArrayEquals(Arrays.copyOf(expected, expectedCount),
+            Arrays.copyOf(matches, matched), Arrays.toString(source) + " radius " + radius);
+      }
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class InvertedIndexTest {
+
+  @Test
+  public void matchesIgnoreCaseAccentsAndSpaces() {
+    InvertedIndex index = InvertedIndex.builder()
+        .add(0, "A2B")
+        .add(1, "A2B  Adyar Ananda Bhavan")
+        .add(2, "Caf\u00e9 Coffee Day")
+        .add(2, "Cafe")
+        .add(3, null)
+        .build();
+
+    assertArrayEquals(new int[]{0}, index.findExact("a2b"));
+    assertArrayEquals(new int[]{0, 1}, index.findContaining("A2B"));
+    assertArrayEquals(new int[]{1}, index.findContaining("b adyar"));
+    assertArrayEquals(new int[]{2}, index.findContaining("CAFE"));
+    assertArrayEquals(new int[]{2}, index.findExact("caf\u00e9"));
+    assertArrayEquals(new int[]{0, 1}, index.findContaining("2"));
+    assertArrayEquals(new int[0], index.findContaining("tea"));
+    assertArrayEquals(new int[0], index.findContaining(" "));
+    assertEquals(4, index.textCount());
+  }
+
+  @Test
+  public void containingMatchesAScanOfEveryText() {
+    Random random = new Random(42);
+    List<String> texts = new ArrayList<>();
+    InvertedIndex.Builder builder = InvertedIndex.builder();
+    for (int document = 0; document < 500; document++) {
+      String text = randomText(random, 3 + random.nextInt(12));
+      texts.add(text);
+      builder.add(document, text);
+    }
+    InvertedIndex index = builder.build();
+
+    for (int i = 0; i < 200; i++) {
+      String query = randomText(random, 1 + random.nextInt(5));
+      List<Integer> expected = new ArrayList<>();
+      for (int document = 0; document < texts.size(); document++) {
+        if (texts.get(document).toLowerCase(Locale.ROOT).contains(
+            query.toLowerCase(Locale.ROOT))) {
+          expected.add(document);
+        }
+      }
+      assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(),
+          index.findContaining(query), query);
+    }
+  }
+
+  private static String randomText(Random random, int length) {
+    StringBuilder text = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      char letter = (char) ('a' + random.nextInt(4));
+      text.append(random.nextBoolean() ? Character.toUpperCase(letter) : letter);
+    }
+    return text.toString();
+  }
+}
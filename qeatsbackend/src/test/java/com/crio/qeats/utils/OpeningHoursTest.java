@@ -0,0 +1,75 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import org.junit.jupiter.api.Test;
+
+class OpeningHoursTest {
+
+  @Test
+  public void openStrictlyBetweenOpeningAndClosingTime() {
+    OpeningHours openingHours = OpeningHours.of("18:00", "23:00");
+
+    assertFalse(openingHours.isOpen(LocalTime.of(17, 59)));
+    assertFalse(openingHours.isOpen(LocalTime.of(18, 0)));
+    assertTrue(openingHours.isOpen(LocalTime.of(18, 0, 1)));
+    assertTrue(openingHours.isOpen(LocalTime.of(18, 1)));
+    assertTrue(openingHours.isOpen(LocalTime.of(22, 59, 59)));
+    assertFalse(openingHours.isOpen(LocalTime.of(23, 0)));
+    assertFalse(openingHours.isOpen(LocalTime.of(23, 1)));
+  }
+
+  @Test
+  public void overnightWindowWrapsAroundMidnight() {
+    OpeningHours openingHours = OpeningHours.of("18:00", "02:00");
+
+    assertTrue(openingHours.isOvernight());
+    assertTrue(openingHours.isOpen(LocalTime.of(23, 59)));
+    assertTrue(openingHours.isOpen(LocalTime.MIDNIGHT));
+    assertTrue(openingHours.isOpen(LocalTime.of(1, 59)));
+    assertFalse(openingHours.isOpen(LocalTime.of(2, 0)));
+    assertFalse(openingHours.isOpen(LocalTime.NOON));
+  }
+
+  @Test
+  public void matchesLocalTimeComparisonForEveryMinute() {
+    String[][] windows = {{"08:30", "22:15"}, {"09:07", "21:53"}, {"00:00", "23:59"},
+        {"11:00", "11:00"}, {"10:00", "10:14"}};
+
+    for (String[] window : windows) {
+      OpeningHours openingHours = OpeningHours.of(window[0], window[1]);
+      LocalTime opens = LocalTime.parse(window[0]);
+      LocalTime closes = LocalTime.parse(window[1]);
+      for (int minute = 0; minute < 24 * 60; minute++) {
+        for (int second : new int[]{0, 1, 59}) {
+          LocalTime time = LocalTime.of(minute / 60, minute % 60, second);
+          assertEquals(time.isAfter(opens) && time.isBefore(closes), openingHours.isOpen(time),
+              window[0] + "-" + window[1] + " at " + time);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void missingTimesAreAlwaysOpen() {
+    assertSame(OpeningHours.ALWAYS_OPEN, OpeningHours.of(null, "23:00"));
+    assertTrue(OpeningHours.of("18:00", null).isOpen(LocalTime.of(3, 0)));
+  }
+
+  @Test
+  public void parsedHoursAreReused() {
+    assertSame(OpeningHours.of("10:00", "22:00"), OpeningHours.of("10:00", "22:00"));
+    assertEquals(600, OpeningHours.of("10:00", "22:00").getOpensAtMinute());
+    assertEquals(1320, OpeningHours.of("10:00", "22:00").getClosesAtMinute());
+  }
+}